@@ -0,0 +1,110 @@
+package dft.simd;
+
+import dft.Butterflies;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Butterflies mit der Vector-API: Die Schleife ueber j rechnet so viele
+ * Butterflies auf einmal, wie double-Werte in ein Register passen (8 mit
+ * AVX-512). Weil die Einheitswurzeln pro Stufe zusammenhaengend liegen,
+ * werden sie wie die Daten ohne Gather geladen. Die Operationen sind
+ * dieselben wie im skalaren Kern, die Ergebnisse also bitgleich.
+ *
+ * Nur mit --add-modules jdk.incubator.vector zu uebersetzen und zu starten,
+ * sonst verwendet Butterflies.get() den skalaren Kern.
+ */
+public class VectorButterflies extends Butterflies {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public String getName() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+
+    /** half muss ein Vielfaches der Vektorlaenge sein */
+    @Override
+    public int minHalf() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void radix2(double[] re, double[] im, double[] wRe, double[] wIm,
+            int n, int half) {
+        int l = SPECIES.length();
+        int off = half - 1;
+        for (int i = 0; i < n; i += 2 * half) {
+            for (int j = 0; j < half; j += l) {
+                DoubleVector wr = DoubleVector.fromArray(SPECIES, wRe, off + j);
+                DoubleVector wi = DoubleVector.fromArray(SPECIES, wIm, off + j);
+                int a = i + j;
+                int b = a + half;
+                DoubleVector ar = DoubleVector.fromArray(SPECIES, re, a);
+                DoubleVector ai = DoubleVector.fromArray(SPECIES, im, a);
+                DoubleVector br = DoubleVector.fromArray(SPECIES, re, b);
+                DoubleVector bi = DoubleVector.fromArray(SPECIES, im, b);
+                DoubleVector tr = wr.mul(br).sub(wi.mul(bi));
+                DoubleVector ti = wr.mul(bi).add(wi.mul(br));
+                ar.sub(tr).intoArray(re, b);
+                ai.sub(ti).intoArray(im, b);
+                ar.add(tr).intoArray(re, a);
+                ai.add(ti).intoArray(im, a);
+            }
+        }
+    }
+
+    @Override
+    public void radix4(double[] re, double[] im, double[] wRe, double[] wIm,
+            int n, int half) {
+        int l = SPECIES.length();
+        int off1 = half - 1;
+        int off2 = 2 * half - 1;
+        for (int i = 0; i < n; i += 4 * half) {
+            for (int j = 0; j < half; j += l) {
+                int i0 = i + j, i1 = i0 + half, i2 = i1 + half, i3 = i2 + half;
+                DoubleVector r0 = DoubleVector.fromArray(SPECIES, re, i0);
+                DoubleVector r1 = DoubleVector.fromArray(SPECIES, re, i1);
+                DoubleVector r2 = DoubleVector.fromArray(SPECIES, re, i2);
+                DoubleVector r3 = DoubleVector.fromArray(SPECIES, re, i3);
+                DoubleVector m0 = DoubleVector.fromArray(SPECIES, im, i0);
+                DoubleVector m1 = DoubleVector.fromArray(SPECIES, im, i1);
+                DoubleVector m2 = DoubleVector.fromArray(SPECIES, im, i2);
+                DoubleVector m3 = DoubleVector.fromArray(SPECIES, im, i3);
+
+                // Stufe half: (0, 1) und (2, 3) mit w_j
+                DoubleVector wr = DoubleVector.fromArray(SPECIES, wRe, off1 + j);
+                DoubleVector wi = DoubleVector.fromArray(SPECIES, wIm, off1 + j);
+                DoubleVector tr = wr.mul(r1).sub(wi.mul(m1));
+                DoubleVector ti = wr.mul(m1).add(wi.mul(r1));
+                r1 = r0.sub(tr);
+                m1 = m0.sub(ti);
+                r0 = r0.add(tr);
+                m0 = m0.add(ti);
+                tr = wr.mul(r3).sub(wi.mul(m3));
+                ti = wr.mul(m3).add(wi.mul(r3));
+                r3 = r2.sub(tr);
+                m3 = m2.sub(ti);
+                r2 = r2.add(tr);
+                m2 = m2.add(ti);
+
+                // Stufe 2*half: (0, 2) mit w_j und (1, 3) mit w_{j+half}
+                wr = DoubleVector.fromArray(SPECIES, wRe, off2 + j);
+                wi = DoubleVector.fromArray(SPECIES, wIm, off2 + j);
+                tr = wr.mul(r2).sub(wi.mul(m2));
+                ti = wr.mul(m2).add(wi.mul(r2));
+                r0.sub(tr).intoArray(re, i2);
+                m0.sub(ti).intoArray(im, i2);
+                r0.add(tr).intoArray(re, i0);
+                m0.add(ti).intoArray(im, i0);
+                wr = DoubleVector.fromArray(SPECIES, wRe, off2 + half + j);
+                wi = DoubleVector.fromArray(SPECIES, wIm, off2 + half + j);
+                tr = wr.mul(r3).sub(wi.mul(m3));
+                ti = wr.mul(m3).add(wi.mul(r3));
+                r1.sub(tr).intoArray(re, i3);
+                m1.sub(ti).intoArray(im, i3);
+                r1.add(tr).intoArray(re, i1);
+                m1.add(ti).intoArray(im, i1);
+            }
+        }
+    }
+}
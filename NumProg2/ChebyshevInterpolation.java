@@ -0,0 +1,209 @@
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+import dft.RealFFT;
+
+/**
+ * Interpolation in den Chebyshev-Punkten. Auf [a, b] wird mit t = (2x - a -
+ * b)/(b - a) das Polynom
+ *
+ * p(x) = c_0 T_0(t) + c_1 T_1(t) + ... + c_n T_n(t)
+ *
+ * bestimmt, das eine Funktion f in den Chebyshev-Punkten (Extrema von T_n)
+ * x_j = (a+b)/2 + (b-a)/2 * cos(pi*j/n), j = 0, ..., n, interpoliert. Die
+ * Koeffizienten sind eine diskrete Kosinustransformation (DCT-I) der Werte
+ * f(x_j), die ueber eine reelle FFT der Laenge 2n der gerade fortgesetzten
+ * Werte in O(n log n) berechnet wird. Ausgewertet wird mit der Rekursion von
+ * Clenshaw in O(n).
+ *
+ * Anders als bei aequidistanten Stuetzstellen konvergiert die Interpolation
+ * fuer glatte f mit wachsendem n, fuer analytische f sogar exponentiell, und
+ * Auswertung und Koeffizienten sind stabil. initAdaptive() nutzt das: n wird
+ * verdoppelt, bis die letzten Koeffizienten vernachlaessigbar sind, dann wird
+ * mit truncate() abgeschnitten.
+ *
+ * init(a, b, n, y) mit aequidistanten Stuetzwerten ist nur der Vollstaendigkeit
+ * halber vorhanden: Dort wird das Interpolationspolynom der aequidistanten
+ * Werte (wie NewtonPolynom) in die Chebyshev-Basis umgerechnet. Es hat damit
+ * dieselben Schwaechen (Runge-Phaenomen).
+ */
+public class ChebyshevInterpolation implements InterpolationMethod {
+    /** Anfangsgrad von initAdaptive() */
+    final static int MIN_ADAPTIVE_DEGREE = 16;
+
+    /** Hoechster Grad von initAdaptive() */
+    final static int MAX_ADAPTIVE_DEGREE = 1 << 16;
+
+    /**
+     * Anzahl der letzten Koeffizienten, die in initAdaptive() klein sein
+     * muessen. Einer allein reicht nicht, z.B. sind bei geraden Funktionen
+     * alle ungeraden Koeffizienten 0.
+     */
+    final static int TAIL = 4;
+
+    /** Intervall [a, b] */
+    double a, b;
+
+    /** Koeffizienten c_0, ..., c_n */
+    double[] c;
+
+    /**
+     * {@inheritDoc} Die Stuetzwerte liegen auf aequidistanten Stuetzstellen,
+     * ihr Interpolationspolynom wird in den Chebyshev-Punkten ausgewertet und
+     * transformiert. Das kostet O(n^2).
+     */
+    @Override
+    public void init(double a, double b, int n, double[] y) {
+        NewtonPolynom p = new NewtonPolynom();
+        p.init(a, b, n, y);
+        init(a, b, n, p::evaluate);
+    }
+
+    /** Interpoliert f in den n+1 Chebyshev-Punkten von [a, b], n > 0 */
+    public void init(double a, double b, int n, DoubleUnaryOperator f) {
+        this.a = a;
+        this.b = b;
+        double[] v = new double[n + 1];
+        for (int j = 0; j <= n; j++) {
+            v[j] = f.applyAsDouble(node(a, b, n, j));
+        }
+        c = coefficients(v);
+    }
+
+    /**
+     * Interpoliert f auf [a, b] mit dem kleinsten Grad n = 16, 32, 64, ...,
+     * bei dem die letzten TAIL Koeffizienten hoechstens tol * max |c_k| sind,
+     * und schneidet dann mit truncate(tol) ab. Bei MAX_ADAPTIVE_DEGREE wird
+     * aufgehoert. Die Werte des vorigen Grades werden wiederverwendet, weil die
+     * Chebyshev-Punkte fuer n in denen fuer 2n enthalten sind.
+     */
+    public void initAdaptive(double a, double b, DoubleUnaryOperator f,
+            double tol) {
+        this.a = a;
+        this.b = b;
+        int n = MIN_ADAPTIVE_DEGREE;
+        double[] v = new double[n + 1];
+        for (int j = 0; j <= n; j++) {
+            v[j] = f.applyAsDouble(node(a, b, n, j));
+        }
+        while (true) {
+            c = coefficients(v);
+            if (n >= MAX_ADAPTIVE_DEGREE || isResolved(tol))
+                break;
+            // x_j fuer n ist x_{2j} fuer 2n, nur die ungeraden sind neu
+            double[] w = new double[2 * n + 1];
+            for (int j = 0; j <= 2 * n; j++) {
+                w[j] = (j % 2 == 0) ? v[j / 2]
+                        : f.applyAsDouble(node(a, b, 2 * n, j));
+            }
+            v = w;
+            n *= 2;
+        }
+        truncate(tol);
+    }
+
+    /**
+     * Entfernt die hoechsten Koeffizienten, solange sie hoechstens tol *
+     * max |c_k| sind. Der Fehler aendert sich dabei hoechstens um die Summe
+     * ihrer Betraege, weil |T_k(t)| <= 1 auf [a, b].
+     */
+    public void truncate(double tol) {
+        double limit = tol * maxAbs();
+        int n = c.length - 1;
+        while (n > 0 && Math.abs(c[n]) <= limit) {
+            n--;
+        }
+        c = Arrays.copyOf(c, n + 1);
+    }
+
+    /** Gibt den Grad n zurueck */
+    public int getDegree() {
+        return c.length - 1;
+    }
+
+    /** Gibt die Chebyshev-Koeffizienten c_0, ..., c_n zurueck */
+    public double[] getCoefficients() {
+        return c;
+    }
+
+    /** Gibt die Chebyshev-Punkte x_0 > x_1 > ... > x_n von [a, b] zurueck */
+    public static double[] nodes(double a, double b, int n) {
+        double[] x = new double[n + 1];
+        for (int j = 0; j <= n; j++) {
+            x[j] = node(a, b, n, j);
+        }
+        return x;
+    }
+
+    /**
+     * {@inheritDoc} Mit der Rekursion von Clenshaw b_k = c_k + 2t b_{k+1} -
+     * b_{k+2}, p = c_0 + t b_1 - b_2. Ausserhalb von [a, b] wird das Polynom
+     * fortgesetzt.
+     */
+    @Override
+    public double evaluate(double z) {
+        double t = (2 * z - a - b) / (b - a);
+        double b1 = 0, b2 = 0;
+        for (int k = c.length - 1; k >= 1; k--) {
+            double b0 = c[k] + 2 * t * b1 - b2;
+            b2 = b1;
+            b1 = b0;
+        }
+        return c[0] + t * b1 - b2;
+    }
+
+    /** Chebyshev-Punkt x_j von [a, b] fuer den Grad n */
+    private static double node(double a, double b, int n, int j) {
+        if (n == 0)
+            return (a + b) / 2;
+        // sin statt cos(pi*j/n), damit die Punkte symmetrisch zur Mitte sind
+        double t = Math.sin(Math.PI * (n - 2 * j) / (2 * n));
+        return (a + b) / 2 + (b - a) / 2 * t;
+    }
+
+    /**
+     * DCT-I der Werte v_0, ..., v_n: Die gerade Fortsetzung v_0, ..., v_n,
+     * v_{n-1}, ..., v_1 der Laenge 2n hat die (durch 2n geteilte)
+     * Transformierte F_k = (v_0 + (-1)^k v_n + 2 sum_{j=1}^{n-1} v_j
+     * cos(pi*j*k/n)) / 2n, und es ist c_0 = F_0, c_n = F_n, sonst c_k = 2 F_k.
+     */
+    private static double[] coefficients(double[] v) {
+        int n = v.length - 1;
+        if (n == 0)
+            return new double[] { v[0] };
+        double[] e = new double[2 * n];
+        for (int j = 0; j <= n; j++) {
+            e[j] = v[j];
+        }
+        for (int j = 1; j < n; j++) {
+            e[2 * n - j] = v[j];
+        }
+        double[] re = new double[n + 1];
+        double[] im = new double[n + 1];
+        RealFFT.fft(e, re, im);
+
+        double[] c = new double[n + 1];
+        for (int k = 0; k <= n; k++) {
+            c[k] = (k == 0 || k == n) ? re[k] : 2 * re[k];
+        }
+        return c;
+    }
+
+    /** Sind die letzten TAIL Koeffizienten hoechstens tol * max |c_k|? */
+    private boolean isResolved(double tol) {
+        double limit = tol * maxAbs();
+        for (int k = Math.max(0, c.length - TAIL); k < c.length; k++) {
+            if (Math.abs(c[k]) > limit)
+                return false;
+        }
+        return true;
+    }
+
+    private double maxAbs() {
+        double max = 0;
+        for (double ck : c) {
+            max = Math.max(max, Math.abs(ck));
+        }
+        return max;
+    }
+}
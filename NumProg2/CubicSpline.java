@@ -7,7 +7,7 @@ import java.util.Arrays;
  * @author braeckle
  *
  */
-public class CubicSpline implements InterpolationMethod {
+public class CubicSpline implements MultiChannelInterpolationMethod {
 
     /** linke und rechte Intervallgrenze x[0] bzw. x[n] */
     double a, b;
@@ -18,10 +18,22 @@ public class CubicSpline implements InterpolationMethod {
     /** Intervallbreite */
     double h;
 
-    /** Stuetzwerte an den aequidistanten Stuetzstellen */
+    /**
+     * Hoechstzahl an Stellen, die bei evaluateUniform() mit Vorwaertsdifferenzen
+     * am Stueck berechnet werden, bevor neu aufgesetzt wird
+     */
+    final static int RESEED = 64;
+
+    /** Anzahl der Kanaele, 1 nach init() */
+    int channels = 1;
+
+    /**
+     * Stuetzwerte an den aequidistanten Stuetzstellen, bei mehreren Kanaelen
+     * verschraenkt: y[i*channels + c]
+     */
     double[] y;
 
-    /** zu berechnende Ableitunge an den Stuetzstellen */
+    /** zu berechnende Ableitunge an den Stuetzstellen, abgelegt wie y */
     double yprime[];
 
     /**
@@ -31,17 +43,27 @@ public class CubicSpline implements InterpolationMethod {
      */
     @Override
     public void init(double a, double b, int n, double[] y) {
+        initChannels(a, b, n, y, 1);
+    }
+
+    /**
+     * {@inheritDoc} Die Ableitungen aller Kanaele werden mit einer einzigen
+     * Zerlegung der Tridiagonalmatrix berechnet, die Randbedingungen sind fuer
+     * alle Kanaele 0.
+     */
+    @Override
+    public void initChannels(double a, double b, int n, double[] y,
+            int channels) {
         this.a = a;
         this.b = b;
         this.n = n;
+        this.channels = channels;
         h = ((double) b - a) / (n);
 
-        this.y = Arrays.copyOf(y, n + 1);
+        this.y = Arrays.copyOf(y, (n + 1) * channels);
 
         /* Randbedingungen setzten */
-        yprime = new double[n + 1];
-        yprime[0] = 0;
-        yprime[n] = 0;
+        yprime = new double[(n + 1) * channels];
 
         /* Ableitungen berechnen. Nur noetig, wenn n > 1 */
         if (n > 1) {
@@ -58,11 +80,14 @@ public class CubicSpline implements InterpolationMethod {
 
     /**
      * Setzt die Ableitungen an den Raendern x[0] und x[n] neu auf yprime0 bzw.
-     * yprimen. Anschliessend werden alle Ableitungen aktualisiert.
+     * yprimen (bei mehreren Kanaelen fuer jeden Kanal). Anschliessend werden
+     * alle Ableitungen aktualisiert.
      */
     public void setBoundaryConditions(double yprime0, double yprimen) {
-        yprime[0] = yprime0;
-        yprime[n] = yprimen;
+        for (int c = 0; c < channels; c++) {
+            yprime[c] = yprime0;
+            yprime[n * channels + c] = yprimen;
+        }
         if (n > 1) {
             computeDerivatives();
         }
@@ -73,16 +98,16 @@ public class CubicSpline implements InterpolationMethod {
      * einzelnen Stuetzstellen. Dazu wird ein lineares System Ax=c mit einer
      * Tridiagonalen Matrix A und der rechten Seite c aufgebaut und geloest.
      * Anschliessend sind die berechneten Ableitungen y1' bis yn-1' in der
-     * Membervariable yprime gespeichert.
+     * Membervariable yprime gespeichert. Bei mehreren Kanaelen gibt es eine
+     * rechte Seite pro Kanal, die Matrix A ist fuer alle dieselbe.
      *
      * Zum Zeitpunkt des Aufrufs stehen die Randbedingungen in yprime[0] und
-     * yprime[n].
-     * Speziell bei den "kleinen" Faellen mit Intervallzahlen n = 2
-     * oder 3 muss auf die Struktur des Gleichungssystems geachtet werden. Der
-     * Fall n = 1 wird hier nicht beachtet, da dann keine weiteren Ableitungen
-     * berechnet werden muessen.
+     * yprime[n]. Sie gehen in die erste bzw. letzte Zeile der rechten Seite
+     * ein, fuer n = 2 beide in dieselbe. Der Fall n = 1 wird hier nicht
+     * beachtet, da dann keine weiteren Ableitungen berechnet werden muessen.
      */
     public void computeDerivatives() {
+        int k = channels;
         double arrayLow[] = new double[n - 2];
         double arrayDiag[] = new double[n - 1];
         double arrayUpper[] = new double[n - 2];
@@ -90,21 +115,19 @@ public class CubicSpline implements InterpolationMethod {
         Arrays.fill(arrayDiag, 4);
         Arrays.fill(arrayUpper, 1);
         TridiagonalMatrix mat = new TridiagonalMatrix(arrayLow, arrayDiag, arrayUpper);
-        double result[] = new double[n + 1];
-        result[0] = (3 / h) * (y[2] - y[0] - (h / 3) * yprime[0]);
-        result[n] = (3 / h) * (y[n] - y[n - 2] - (h / 3) * yprime[n]);
-        int j = 1;
-        for (int i = 1; i < n - 1; i++) {
-            result[i] = (3 / h) * (y[j + 2] - y[j]);
-            j++;
-        }
-        double[] yprimeResult = mat.solveLinearSystem(result);
-        int k = 0;
+        double result[] = new double[(n - 1) * k];
         for (int i = 1; i < n; i++) {
-            yprime[i] = yprimeResult[k];
-            k++;
+            for (int c = 0; c < k; c++) {
+                result[(i - 1) * k + c] = (3 / h)
+                        * (y[(i + 1) * k + c] - y[(i - 1) * k + c]);
+            }
         }
-
+        for (int c = 0; c < k; c++) {
+            result[c] -= yprime[c];
+            result[(n - 2) * k + c] -= yprime[n * k + c];
+        }
+        double[] yprimeResult = mat.solveLinearSystem(result, k);
+        System.arraycopy(yprimeResult, 0, yprime, k, (n - 1) * k);
     }
 
     /**
@@ -116,28 +139,164 @@ public class CubicSpline implements InterpolationMethod {
     @Override
     public double evaluate(double z) {
         if (z <= a) {
-            return a;
+            return y[0];
         }
         if (z >= b) {
-            return b;
-        }
-        double x[] = new double[n + 1];
-        x[0] = a;
-        x[n] = b;
-        for (int i = 1; i < n; i++) {
-            x[i] = x[i - 1] + h;
+            return y[n];
         }
-
-        int i = 0;
-        while (!(z >= x[i] && z <= x[i + 1]) && i < x.length) {
-            i++;
-        }
-        double ha = x[i + 1] - x[i];
-        double t = (z - x[i]) / (ha);
+        int i = interval(z);
+        double t = (z - (a + i * h)) / h;
         double herm0 = 1 - 3 * Math.pow(t, 2) + 2 * Math.pow(t, 3);
         double herm1 = 3 * Math.pow(t, 2) - 2 * Math.pow(t, 3);
         double herm2 = t - 2 * Math.pow(t, 2) + Math.pow(t, 3);
         double herm3 = -Math.pow(t, 2) + Math.pow(t, 3);
         return y[i] * herm0 + y[i + 1] * herm1 + yprime[i] * h * herm2 + yprime[i + 1] * h * herm3;
     }
+
+    /**
+     * {@inheritDoc} Das Intervall und die vier Hermite-Basisfunktionen werden
+     * einmal bestimmt und fuer alle Kanaele verwendet.
+     */
+    @Override
+    public void evaluateChannels(double z, double[] out, int offset) {
+        int k = channels;
+        if (z <= a) {
+            System.arraycopy(y, 0, out, offset, k);
+            return;
+        }
+        if (z >= b) {
+            System.arraycopy(y, n * k, out, offset, k);
+            return;
+        }
+        int i = interval(z);
+        double t = (z - (a + i * h)) / h;
+        double t2 = t * t;
+        double t3 = t2 * t;
+        double herm0 = 1 - 3 * t2 + 2 * t3;
+        double herm1 = 3 * t2 - 2 * t3;
+        double herm2 = (t - 2 * t2 + t3) * h;
+        double herm3 = (-t2 + t3) * h;
+        int i0 = i * k;
+        int i1 = i0 + k;
+        for (int c = 0; c < k; c++) {
+            out[offset + c] = y[i0 + c] * herm0 + y[i1 + c] * herm1
+                    + yprime[i0 + c] * herm2 + yprime[i1 + c] * herm3;
+        }
+    }
+
+    /**
+     * {@inheritDoc} Innerhalb eines Intervalls ist der Spline ein kubisches
+     * Polynom, das an aequidistanten Stellen mit Vorwaertsdifferenzen (drei
+     * Additionen pro Stelle) fortgeschrieben wird. An jeder Intervallgrenze,
+     * spaetestens aber nach RESEED Stellen, werden die Differenzen neu aus dem
+     * Polynom berechnet, damit sich Rundungsfehler nicht aufschaukeln.
+     */
+    @Override
+    public void evaluateUniform(double start, double step, int count,
+            double[] out) {
+        forwardDifferences(start, step, count, out, null);
+    }
+
+    /**
+     * {@inheritDoc} Die Vorwaertsdifferenzen werden wie bei evaluateUniform()
+     * berechnet, fuer jeden Kanal getrennt.
+     */
+    @Override
+    public void evaluateChannelsUniform(double start, double step, int count,
+            double[][] out) {
+        forwardDifferences(start, step, count, null, out);
+    }
+
+    /**
+     * Gemeinsame Umsetzung von evaluateUniform() und evaluateChannelsUniform().
+     * Geschrieben wird nach flat[k*channels + c], falls flat nicht null ist,
+     * sonst nach rows[k][c].
+     */
+    private void forwardDifferences(double start, double step, int count,
+            double[] flat, double[][] rows) {
+        int k = channels;
+        double[] q = new double[k];
+        double[] d1 = new double[k];
+        double[] d2 = new double[k];
+        double[] d3 = new double[k];
+        double dt = step / h;
+
+        int s = 0;
+        while (s < count) {
+            double z = start + s * step;
+
+            /* ausserhalb der Stuetzgrenzen die aeussersten Werte */
+            if (z <= a || z >= b) {
+                int i0 = (z <= a) ? 0 : n * k;
+                for (int c = 0; c < k; c++) {
+                    if (flat != null)
+                        flat[s * k + c] = y[i0 + c];
+                    else
+                        rows[s][c] = y[i0 + c];
+                }
+                s++;
+                continue;
+            }
+
+            /* Stellen s, ..., end-1 liegen im Intervall [x_i, x_i+1] */
+            int i = interval(z);
+            int end = (int) Math.ceil((a + (i + 1) * h - start) / step);
+            end = Math.min(end, Math.min(count, s + RESEED));
+            if (end <= s)
+                end = s + 1;
+
+            /*
+             * Das Hermite-Polynom in Monomform c0 + c1*t + c2*t^2 + c3*t^3
+             * und als Polynom e0 + e1*j + e2*j^2 + e3*j^3 in der Nummer j der
+             * Stelle ab s, mit t = t0 + j*dt
+             */
+            double t0 = (z - (a + i * h)) / h;
+            int i0 = i * k;
+            int i1 = i0 + k;
+            for (int c = 0; c < k; c++) {
+                double y0 = y[i0 + c];
+                double y1 = y[i1 + c];
+                double m0 = yprime[i0 + c] * h;
+                double m1 = yprime[i1 + c] * h;
+                double c1 = m0;
+                double c2 = -3 * y0 + 3 * y1 - 2 * m0 - m1;
+                double c3 = 2 * y0 - 2 * y1 + m0 + m1;
+
+                double e0 = y0 + t0 * (c1 + t0 * (c2 + t0 * c3));
+                double e1 = (c1 + t0 * (2 * c2 + 3 * c3 * t0)) * dt;
+                double e2 = (c2 + 3 * c3 * t0) * dt * dt;
+                double e3 = c3 * dt * dt * dt;
+
+                q[c] = e0;
+                d1[c] = e1 + e2 + e3;
+                d2[c] = 2 * e2 + 6 * e3;
+                d3[c] = 6 * e3;
+            }
+
+            for (; s < end; s++) {
+                for (int c = 0; c < k; c++) {
+                    if (flat != null)
+                        flat[s * k + c] = q[c];
+                    else
+                        rows[s][c] = q[c];
+                    q[c] += d1[c];
+                    d1[c] += d2[c];
+                    d2[c] += d3[c];
+                }
+            }
+        }
+    }
+
+    /**
+     * Gibt den Index i des Intervalls [x_i, x_i+1] zurueck, in dem z liegt.
+     * Wegen der aequidistanten Stuetzstellen ist keine Suche noetig.
+     */
+    private int interval(double z) {
+        int i = (int) ((z - a) / h);
+        if (i > n - 1)
+            i = n - 1;
+        if (i < 0)
+            i = 0;
+        return i;
+    }
 }
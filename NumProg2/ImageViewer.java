@@ -2,6 +2,9 @@ import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileFilter;
@@ -50,6 +53,19 @@ class ViewComponent extends JComponent {
             repaint();
     }
 
+    /**
+     * Zeigt eine Kopie des Bildes picture an. Die Kopie ist noetig, weil
+     * Bilder aus dem PictureCache nicht veraendert werden duerfen.
+     */
+    public void setPicture(Picture picture) {
+        if (picture == null || picture.isNull())
+            return;
+        if (pic != null)
+            oldpic = new Picture(pic.getImage());
+        pic = new Picture(picture.getImage());
+        repaint();
+    }
+
     /** Speichert das Bild in die Datei file*/
     public void saveImage(File file) {
         if (pic == null || pic.isNull())
@@ -121,6 +137,28 @@ public class ImageViewer extends JFrame implements ActionListener,
     JMenuItem openitem = new JMenuItem("Öffnen");
     JMenuItem saveitem = new JMenuItem("Speichern");
     JMenuItem undoitem = new JMenuItem("Undo");
+    JMenuItem previtem = new JMenuItem("Vorheriges Bild");
+    JMenuItem nextitem = new JMenuItem("Naechstes Bild");
+
+    /**
+     * Blaettermodus: die Bilder im Verzeichnis des zuletzt geoeffneten Bildes
+     * und der Index des angezeigten Bildes
+     */
+    private List<File> browseFiles = new ArrayList<File>();
+    private int browseIndex = -1;
+
+    /** Anzahl der Nachbarn in jede Richtung, die vorgeladen werden */
+    private final static int PREFETCH = 2;
+
+    /**
+     * Zwischenspeicher fuer dekodierte und auf die Anzeigeflaeche skalierte
+     * Bilder, hoechstens ein Viertel des Heaps
+     */
+    private PictureCache cache = new PictureCache(
+            Runtime.getRuntime().maxMemory() / 4, 2);
+
+    /** Nummer der letzten Anzeige-Anfrage, aeltere Ergebnisse verfallen */
+    private int showRequest = 0;
 
     /** Combobox fuer die Interpolationsmethoden */
     String[] modeStrings = { "Nearest", "Linear", "Poly", "Cubic" };
@@ -141,9 +179,16 @@ public class ImageViewer extends JFrame implements ActionListener,
         openitem.addActionListener(this);
         //saveitem.addActionListener(this);
         undoitem.addActionListener(this);
+        previtem.addActionListener(this);
+        nextitem.addActionListener(this);
+        previtem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_PAGE_UP, 0));
+        nextitem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_PAGE_DOWN, 0));
         filemenu.add(openitem);
         //filemenu.add(saveitem);
         filemenu.add(undoitem);
+        filemenu.addSeparator();
+        filemenu.add(previtem);
+        filemenu.add(nextitem);
 
         interpolationmodeBox.setSelectedIndex(0);
         scaleButton.addActionListener(this);
@@ -161,6 +206,14 @@ public class ImageViewer extends JFrame implements ActionListener,
         /* Mouseradlistener */
         this.addMouseWheelListener(this);
 
+        /* Beim Schliessen die Threads des Zwischenspeichers beenden */
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cache.shutdown();
+            }
+        });
+
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(800, 600);
     }
@@ -179,12 +232,18 @@ public class ImageViewer extends JFrame implements ActionListener,
 
             if (returnVal == JFileChooser.APPROVE_OPTION) {
                 File file = d.getSelectedFile();
-                viewComponent.setImage(file);
+                openImage(file);
                 System.out.println("Opening: " + file.getName() + ".\n");
             } else {
                 System.out.println("Open command cancelled by user.\n");
             }
         }
+        /* Blaettern im Verzeichnis */
+        else if (source == (JComponent) previtem) {
+            showBrowseImage(browseIndex - 1);
+        } else if (source == (JComponent) nextitem) {
+            showBrowseImage(browseIndex + 1);
+        }
         /* Speichern des Bildes */
         else if (source == (JComponent) saveitem) {
             JFileChooser d = new JFileChooser();
@@ -238,6 +297,94 @@ public class ImageViewer extends JFrame implements ActionListener,
         }
     }
 
+    /**
+     * Zeigt file in voller Aufloesung an, damit Skalieren und Speichern mit
+     * dem Original arbeiten. Die Bilder im Verzeichnis werden fuer den
+     * Blaettermodus gesammelt und die Nachbarn vorgeladen.
+     */
+    private void openImage(File file) {
+        /* noch ausstehende Anzeigen aus dem Blaettermodus verfallen */
+        ++showRequest;
+        openBrowseDirectory(file);
+        viewComponent.setImage(file);
+        setTitle("Bildbetrachter - " + file.getName());
+        prefetchNeighbours(browseIndex);
+    }
+
+    /** Sammelt alle Bilder im Verzeichnis von file fuer den Blaettermodus */
+    private void openBrowseDirectory(File file) {
+        PictureFilter filter = new PictureFilter();
+        File[] files = file.getAbsoluteFile().getParentFile().listFiles();
+        browseFiles = new ArrayList<File>();
+        if (files != null) {
+            Arrays.sort(files);
+            for (File f : files)
+                if (f.isFile() && filter.accept(f))
+                    browseFiles.add(f);
+        }
+        browseIndex = browseFiles.indexOf(file.getAbsoluteFile());
+        if (browseIndex < 0) {
+            browseFiles.add(file.getAbsoluteFile());
+            browseIndex = browseFiles.size() - 1;
+        }
+    }
+
+    /**
+     * Zeigt das Bild mit dem Index index im Blaettermodus an. Das Bild wird
+     * ueber den PictureCache im Hintergrund geladen und auf die
+     * Anzeigeflaeche verkleinert, anschliessend werden die Nachbarn
+     * vorgeladen. Zum Bearbeiten in voller Aufloesung muss das Bild mit
+     * "Oeffnen" geladen werden.
+     */
+    private void showBrowseImage(int index) {
+        if (index < 0 || index >= browseFiles.size())
+            return;
+        browseIndex = index;
+        final int request = ++showRequest;
+        final File file = browseFiles.get(index);
+        int width = viewComponent.getWidth();
+        int height = viewComponent.getHeight();
+        int mode = browseMode();
+
+        cache.get(file, width, height, mode).whenComplete((pic, e) -> {
+            SwingUtilities.invokeLater(() -> {
+                if (e != null) {
+                    System.out.println(file.getName()
+                            + " konnte nicht geladen werden: " + e.getMessage());
+                } else if (request == showRequest) {
+                    viewComponent.setPicture(pic);
+                    setTitle("Bildbetrachter - " + file.getName());
+                }
+            });
+        });
+        prefetchNeighbours(index);
+    }
+
+    /**
+     * Laedt die PREFETCH Nachbarn von index in jede Richtung vor. Noch nicht
+     * begonnene Vorladeauftraege fuer andere Bilder werden verworfen.
+     */
+    private void prefetchNeighbours(int index) {
+        List<File> neighbours = new ArrayList<File>();
+        for (int i = 1; i <= PREFETCH; i++) {
+            if (index + i < browseFiles.size())
+                neighbours.add(browseFiles.get(index + i));
+            if (index - i >= 0)
+                neighbours.add(browseFiles.get(index - i));
+        }
+        cache.prefetch(neighbours, viewComponent.getWidth(),
+                viewComponent.getHeight(), browseMode());
+    }
+
+    /** Interpolationsmethode zum Verkleinern im Blaettermodus */
+    private int browseMode() {
+        int mode = interpolationmodeBox.getSelectedIndex();
+        /* ein Polynom ueber eine ganze Bildzeile ist zum Verkleinern ungeeignet */
+        if (mode == Picture.POLY)
+            mode = Picture.LINEAR;
+        return mode;
+    }
+
     class PictureFilter extends FileFilter {
 
         @Override
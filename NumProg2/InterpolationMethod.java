@@ -22,4 +22,16 @@ public interface InterpolationMethod {
      * Wertet das Interpolationsverfahren an einer Stelle z aus
      */
     public double evaluate(double z);
+
+    /**
+     * Wertet das Interpolationsverfahren an den count aequidistanten Stellen
+     * start, start+step, ..., start+(count-1)*step aus und schreibt die Werte
+     * nach out[0], ..., out[count-1]. Es gilt step > 0.
+     */
+    public default void evaluateUniform(double start, double step, int count,
+            double[] out) {
+        for (int k = 0; k < count; k++) {
+            out[k] = evaluate(start + k * step);
+        }
+    }
 }
@@ -121,6 +121,9 @@ class PlotComponent extends JComponent {
         case 3:
             method = new CubicSpline();
             break;
+        case 4:
+            method = new ChebyshevInterpolation();
+            break;
         default:
             break;
         }
@@ -147,11 +150,19 @@ class PlotComponent extends JComponent {
         int width = getWidth();
         double x, y;
 
-        double[] y_i = new double[n + 1];
-        for (int i = 0; i < n + 1; i++) {
-            y_i[i] = f.evaluate(a + i * 1.0 * (b - a) / n);
+        /* Chebyshev-Interpolation wertet f selbst in ihren Stuetzstellen aus */
+        double[] x_i = new double[n + 1];
+        if (method instanceof ChebyshevInterpolation) {
+            ((ChebyshevInterpolation) method).init(a, b, n, f::evaluate);
+            x_i = ChebyshevInterpolation.nodes(a, b, n);
+        } else {
+            double[] y_i = new double[n + 1];
+            for (int i = 0; i < n + 1; i++) {
+                x_i[i] = a + i * 1.0 * (b - a) / n;
+                y_i[i] = f.evaluate(x_i[i]);
+            }
+            this.method.init(a, b, n, y_i);
         }
-        this.method.init(a, b, n, y_i);
 
         minX = a;
         maxX = b;
@@ -161,8 +172,9 @@ class PlotComponent extends JComponent {
 
         for (int i = 0; i < numOfPoints; i++) {
             fData[i] = f.evaluate(xData[i]);
-            pData[i] = method.evaluate(xData[i]);
         }
+        method.evaluateUniform(minX, (maxX - minX) / (numOfPoints - 1),
+                numOfPoints, pData);
 
         minY = Double.MAX_VALUE;
         maxY = Double.MIN_VALUE;
@@ -227,8 +239,8 @@ class PlotComponent extends JComponent {
 
         /* draw Sampling Points */
         for (int i = 0; i < n + 1; i++) {
-            x = scaleX(a + i * 1.0 * (b - a) / n, width);
-            y = scaleY(f.evaluate(a + i * 1.0 * (b - a) / n), height);
+            x = scaleX(x_i[i], width);
+            y = scaleY(f.evaluate(x_i[i]), height);
             graphics.fill(new Ellipse2D.Double(x - 3.0, y - 3.0, 6.0, 6.0));
         }
 
@@ -271,7 +283,8 @@ public class InterpolationsPlotter extends JFrame implements ActionListener {
     JMenuBar mbar = new JMenuBar();
 
     /** Combobox fuer die Interpolationsmethoden */
-    String[] modeStrings = { "Nearest", "Linear", "Poly", "Cubic" };
+    String[] modeStrings = { "Nearest", "Linear", "Poly", "Cubic",
+            "Chebyshev" };
     JComboBox interpolationmodeBox = new JComboBox(modeStrings);
 
     /** Combobox fuer die Funktionen */
@@ -13,18 +13,39 @@ import java.util.List;
  * @author braeckle
  *
  */
-public class LinearInterpolation implements InterpolationMethod {
+public class LinearInterpolation implements MultiChannelInterpolationMethod {
+    /**
+     * Hoechstzahl an Stellen, die bei evaluateUniform() mit Vorwaertsdifferenzen
+     * am Stueck berechnet werden, bevor neu aufgesetzt wird
+     */
+    final static int RESEED = 64;
 
     /** Die Stuetzstellen x_i */
     double[] x;
-    /** Die Stuetzwerte y_i */
+    /**
+     * Die Stuetzwerte y_i, bei mehreren Kanaelen verschraenkt:
+     * y[i*channels + c]
+     */
     double[] y;
 
+    /** Anzahl der Kanaele, 1 nach init() */
+    int channels = 1;
+
+    /** Intervallbreite der aequidistanten Stuetzstellen */
+    double h;
+
     @Override
     public void init(double a, double b, int n, double[] y) {
+        initChannels(a, b, n, y, 1);
+    }
+
+    @Override
+    public void initChannels(double a, double b, int n, double[] y,
+            int channels) {
         this.y = y;
+        this.channels = channels;
         x = new double[n + 1];
-        double h = (b - a) / n;
+        h = (b - a) / n;
 
         for (int i = 0; i < n + 1; i++) {
             x[i] = a + i * h;
@@ -70,6 +91,7 @@ public class LinearInterpolation implements InterpolationMethod {
 
         this.x = new double[n];
         this.y = new double[n];
+        this.channels = 1;
 
         for (int i = 0; i < n; i++) {
             int index = indices.get(i);
@@ -106,4 +128,115 @@ public class LinearInterpolation implements InterpolationMethod {
         return a * z + b;
     }
 
+    /**
+     * {@inheritDoc} Innerhalb eines Intervalls waechst die Gerade pro Stelle
+     * um denselben Betrag, es genuegt also eine Addition pro Stelle. An jeder
+     * Stuetzstelle, spaetestens aber nach RESEED Stellen, wird der Wert neu aus
+     * der Geraden berechnet, damit sich Rundungsfehler nicht aufsummieren. Das
+     * Fortschreiten ueber die Intervalle funktioniert auch bei beliebigen
+     * Stuetzstellen aus init(x, y).
+     */
+    @Override
+    public void evaluateUniform(double start, double step, int count,
+            double[] out) {
+        forwardDifferences(start, step, count, out, null);
+    }
+
+    /**
+     * {@inheritDoc} Die Werte werden wie bei evaluateUniform() berechnet, fuer
+     * jeden Kanal getrennt.
+     */
+    @Override
+    public void evaluateChannelsUniform(double start, double step, int count,
+            double[][] out) {
+        forwardDifferences(start, step, count, null, out);
+    }
+
+    /**
+     * Gemeinsame Umsetzung von evaluateUniform() und evaluateChannelsUniform().
+     * Geschrieben wird nach flat[k*channels + c], falls flat nicht null ist,
+     * sonst nach rows[k][c].
+     */
+    private void forwardDifferences(double start, double step, int count,
+            double[] flat, double[][] rows) {
+        int k = channels;
+        int n = x.length - 1;
+        double[] q = new double[k];
+        double[] d = new double[k];
+
+        int i = 0;
+        int s = 0;
+        while (s < count) {
+            double z = start + s * step;
+
+            /* ausserhalb der Stuetzgrenzen die aeussersten Werte */
+            if (z < x[0] || z >= x[n]) {
+                int i0 = (z < x[0]) ? 0 : n * k;
+                for (int c = 0; c < k; c++) {
+                    if (flat != null)
+                        flat[s * k + c] = y[i0 + c];
+                    else
+                        rows[s][c] = y[i0 + c];
+                }
+                s++;
+                continue;
+            }
+
+            /* Stellen s, ..., end-1 liegen im Intervall [x_i, x_i+1] */
+            while (z >= x[i + 1])
+                i++;
+            int end = (int) Math.ceil((x[i + 1] - start) / step);
+            end = Math.min(end, Math.min(count, s + RESEED));
+            if (end <= s)
+                end = s + 1;
+
+            double w = (z - x[i]) / (x[i + 1] - x[i]);
+            double dw = step / (x[i + 1] - x[i]);
+            int i0 = i * k;
+            int i1 = i0 + k;
+            for (int c = 0; c < k; c++) {
+                double dy = y[i1 + c] - y[i0 + c];
+                q[c] = y[i0 + c] + w * dy;
+                d[c] = dw * dy;
+            }
+
+            for (; s < end; s++) {
+                for (int c = 0; c < k; c++) {
+                    if (flat != null)
+                        flat[s * k + c] = q[c];
+                    else
+                        rows[s][c] = q[c];
+                    q[c] += d[c];
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc} Da initChannels() aequidistante Stuetzstellen liefert,
+     * wird das Intervall direkt berechnet. Das Gewicht von z im Intervall gilt
+     * fuer alle Kanaele.
+     */
+    @Override
+    public void evaluateChannels(double z, double[] out, int offset) {
+        int n = x.length - 1;
+        if (z < x[0]) {
+            System.arraycopy(y, 0, out, offset, channels);
+            return;
+        }
+        if (z >= x[n]) {
+            System.arraycopy(y, n * channels, out, offset, channels);
+            return;
+        }
+        int i = (int) ((z - x[0]) / h);
+        if (i > n - 1)
+            i = n - 1;
+        double w = (z - x[i]) / (x[i + 1] - x[i]);
+        int i0 = i * channels;
+        int i1 = i0 + channels;
+        for (int c = 0; c < channels; c++) {
+            out[offset + c] = y[i0 + c] + w * (y[i1 + c] - y[i0 + c]);
+        }
+    }
+
 }
@@ -0,0 +1,47 @@
+/**
+ * Erweiterung des Interfaces InterpolationMethod fuer mehrere Kanaele, die
+ * ueber denselben aequidistanten Stuetzstellen interpoliert werden (z.B. die
+ * drei Farbkanaele einer Bildzeile). Alles, was nur von den Stuetzstellen
+ * abhaengt, wird dabei einmal fuer alle Kanaele berechnet: die Suche des
+ * Intervalls, die Basisgewichte und bei den kubischen Splines die Zerlegung
+ * der Tridiagonalmatrix.
+ *
+ * Nach initChannels() ist nur evaluateChannels() definiert, nach init() nur
+ * evaluate().
+ */
+public interface MultiChannelInterpolationMethod extends InterpolationMethod {
+
+    /**
+     * Initialisierung des Interpolationsverfahrens mit aequidistanten
+     * Stuetzstellen fuer channels Kanaele. Es gelten dieselben Voraussetzungen
+     * wie bei init(), zusaetzlich:
+     * channels > 0
+     * Laenge von y = (n+1)*channels
+     * @param a Kleinste Stuetzstelle
+     * @param b Groesste Stuetzstelle
+     * @param n Anzahl an aequidistanten Intervallen zwischen a und b
+     * @param y Stuetzwerte verschraenkt abgelegt: y[i*channels + c] ist der
+     *          Wert des Kanals c an der Stuetzstelle x_i
+     * @param channels Anzahl der Kanaele
+     */
+    public void initChannels(double a, double b, int n, double[] y,
+            int channels);
+
+    /**
+     * Wertet alle Kanaele an der Stelle z aus. Der Wert des Kanals c wird in
+     * out[offset + c] geschrieben.
+     */
+    public void evaluateChannels(double z, double[] out, int offset);
+
+    /**
+     * Wertet alle Kanaele an den count aequidistanten Stellen start,
+     * start+step, ..., start+(count-1)*step aus. Der Wert des Kanals c an der
+     * k-ten Stelle wird in out[k][c] geschrieben. Es gilt step > 0.
+     */
+    public default void evaluateChannelsUniform(double start, double step,
+            int count, double[][] out) {
+        for (int k = 0; k < count; k++) {
+            evaluateChannels(start + k * step, out[k], 0);
+        }
+    }
+}
@@ -6,7 +6,7 @@
  * @author braeckle
  *
  */
-public class NearestNeighbour implements InterpolationMethod {
+public class NearestNeighbour implements MultiChannelInterpolationMethod {
 
     /** linke und rechte Intervallgrenze x[0] bzw. x[n] */
     double a, b;
@@ -17,14 +17,27 @@ public class NearestNeighbour implements InterpolationMethod {
     /** Intervallbreite */
     double h;
 
-    /** Stuetzwerte an den aequidistanten Stuetzstellen */
+    /** Anzahl der Kanaele, 1 nach init() */
+    int channels = 1;
+
+    /**
+     * Stuetzwerte an den aequidistanten Stuetzstellen, bei mehreren Kanaelen
+     * verschraenkt: y[i*channels + c]
+     */
     double[] y;
 
     @Override
     public void init(double a, double b, int n, double[] y) {
+        initChannels(a, b, n, y, 1);
+    }
+
+    @Override
+    public void initChannels(double a, double b, int n, double[] y,
+            int channels) {
         this.a = a;
         this.b = b;
         this.n = n;
+        this.channels = channels;
         h = (b - a) / n;
         this.y = y;
     }
@@ -59,4 +72,23 @@ public class NearestNeighbour implements InterpolationMethod {
             return y[interv + 1];
     }
 
+    /**
+     * {@inheritDoc} Die naechste Stuetzstelle wird wie in evaluate() bestimmt
+     * und ihre Stuetzwerte fuer alle Kanaele kopiert.
+     */
+    @Override
+    public void evaluateChannels(double z, double[] out, int offset) {
+        int interv = (int) ((z - a) / h);
+        int i;
+        if (interv < 0)
+            i = 0;
+        else if (interv >= n)
+            i = n;
+        else if (Math.abs(z - a - interv * h) < Math.abs(z - a - (interv + 1) * h))
+            i = interv;
+        else
+            i = interv + 1;
+        System.arraycopy(y, i * channels, out, offset, channels);
+    }
+
 }
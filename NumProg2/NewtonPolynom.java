@@ -9,7 +9,7 @@ import java.util.OptionalDouble;
  * @author braeckle
  *
  */
-public class NewtonPolynom implements InterpolationMethod {
+public class NewtonPolynom implements MultiChannelInterpolationMethod {
 
     /** Stuetzstellen xi */
     double[] x;
@@ -26,6 +26,18 @@ public class NewtonPolynom implements InterpolationMethod {
      */
     double[] f;
 
+    /**
+     * Anzahl der Kanaele, 1 nach init(). Bei mehreren Kanaelen sind a und f
+     * verschraenkt abgelegt: a[i*channels + c]
+     */
+    int channels = 1;
+
+    /**
+     * Anzahl der Stellen, die evaluate(double[]) gemeinsam durch das
+     * Horner-Schema fuehrt
+     */
+    final static int BLOCK = 256;
+
     /**
      * leerer Konstruktore
      */
@@ -56,9 +68,41 @@ public class NewtonPolynom implements InterpolationMethod {
         for (int i = 0; i < n + 1; i++) {
             x[i] = a + i * h;
         }
+        channels = 1;
         computeCoefficients(y);
     }
 
+    /**
+     * {@inheritDoc} Das Dreiecksschema wird fuer alle Kanaele gemeinsam
+     * aufgebaut, die Stuetzstellendifferenzen werden dabei nur einmal
+     * berechnet. addSamplingPoint() ist danach nicht moeglich.
+     */
+    @Override
+    public void initChannels(double a, double b, int n, double[] y,
+            int channels) {
+        x = new double[n + 1];
+        double h = (b - a) / n;
+
+        for (int i = 0; i < n + 1; i++) {
+            x[i] = a + i * h;
+        }
+        this.channels = channels;
+
+        int k = channels;
+        this.a = new double[(n + 1) * k];
+        this.f = Arrays.copyOf(y, (n + 1) * k);
+        System.arraycopy(f, 0, this.a, 0, k);
+        for (int i = 1; i <= n; i++) {
+            for (int j = 0; j <= n - i; j++) {
+                double dx = x[i + j] - x[j];
+                for (int c = 0; c < k; c++) {
+                    f[j * k + c] = (f[(j + 1) * k + c] - f[j * k + c]) / dx;
+                }
+            }
+            System.arraycopy(f, 0, this.a, i * k, k);
+        }
+    }
+
     /**
      * Initialisierung der Newtoninterpolation mit beliebigen Stuetzstellen. Die
      * Faelle "x und y sind unterschiedlich lang" oder "eines der beiden Arrays
@@ -71,6 +115,7 @@ public class NewtonPolynom implements InterpolationMethod {
      */
     public void init(double[] x, double[] y) {
         this.x = Arrays.copyOf(x, x.length);
+        channels = 1;
         computeCoefficients(y);
     }
 
@@ -179,4 +224,50 @@ public class NewtonPolynom implements InterpolationMethod {
         }
         return result;
     }
+
+    /**
+     * Wertet das Newton-Polynom an allen Stellen z aus. Das Horner-Schema
+     * laeuft dabei fuer jeweils BLOCK Stellen gleichzeitig: Die innere
+     * Schleife ueber die Stellen ist unabhaengig und kann vom JIT vektorisiert
+     * werden, waehrend bei evaluate(z) jeder Schritt auf das Ergebnis des
+     * vorigen warten muss. Fuer jede Stelle werden dieselben Operationen in
+     * derselben Reihenfolge ausgefuehrt, die Ergebnisse sind also identisch
+     * mit evaluate(z[k]).
+     *
+     * Schnelle Verfahren ueber die Monombasis (Restbaum, Chirp-z) sind fuer
+     * reelle Stellen schon ab wenigen Dutzend Stuetzstellen numerisch
+     * unbrauchbar und werden deshalb nicht verwendet.
+     */
+    public double[] evaluate(double[] z) {
+        int n = a.length - 1;
+        double[] out = new double[z.length];
+        for (int from = 0; from < z.length; from += BLOCK) {
+            int to = Math.min(z.length, from + BLOCK);
+            Arrays.fill(out, from, to, a[n]);
+            for (int i = n - 1; i >= 0; i--) {
+                double ai = a[i], xi = x[i];
+                for (int k = from; k < to; k++) {
+                    out[k] = ai + (z[k] - xi) * out[k];
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * {@inheritDoc} Das Horner-Schema laeuft fuer alle Kanaele gleichzeitig,
+     * die Faktoren (z - x_i) werden nur einmal gebildet.
+     */
+    @Override
+    public void evaluateChannels(double z, double[] out, int offset) {
+        int k = channels;
+        int n = x.length - 1;
+        System.arraycopy(a, n * k, out, offset, k);
+        for (int i = n - 1; i >= 0; i--) {
+            double d = z - x[i];
+            for (int c = 0; c < k; c++) {
+                out[offset + c] = a[i * k + c] + d * out[offset + c];
+            }
+        }
+    }
 }
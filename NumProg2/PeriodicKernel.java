@@ -0,0 +1,150 @@
+/**
+ * PeriodicKernel beschreibt die Skalierung einer Bildachse um ein exaktes
+ * rationales Verhaeltnis p/q (p neue Pixel auf q alte Pixel). In diesem Fall
+ * wiederholen sich die Gewichte der Interpolation mit der Periode p: Das neue
+ * Pixel k*p + r (0-basiert) liest immer die alten Pixel k*q + offset[r] und
+ * k*q + offset[r] + 1 mit dem festen Gewicht weight[r]. Die Tabellen werden
+ * einmal angelegt, beim Skalieren selbst faellt dann keine
+ * Koordinatenrechnung pro Pixel mehr an.
+ *
+ * Die Stuetzstellen liegen wie in Picture.scale in den Pixelmitten, die
+ * Ergebnisse stimmen also mit NearestNeighbour bzw. LinearInterpolation
+ * ueberein. Fuer Polynom- und Spline-Interpolation haengt jeder Wert von der
+ * ganzen Zeile ab, dort gibt es keine periodischen Gewichte.
+ */
+class PeriodicKernel {
+
+    /** groesster Zaehler bzw. Nenner, fuer den eine Tabelle angelegt wird */
+    final static int MAX_PERIOD = 16;
+
+    /** Interpolations-Modus aus Picture */
+    int mode;
+
+    /** Anzahl alter und neuer Pixel der Achse */
+    int oldSize, newSize;
+
+    /** Verhaeltnis p/q in gekuerzter Form */
+    int p, q;
+
+    /** linker Nachbar der Phase r relativ zu k*q, kann ausserhalb liegen */
+    int[] offset;
+
+    /** Gewicht des rechten Nachbarn der Phase r */
+    double[] weight;
+
+    /**
+     * Erzeugt die Tabelle fuer eine Achse mit oldSize alten und newSize neuen
+     * Pixeln. Gibt null zurueck, wenn das Verhaeltnis zu grob gerastert ist
+     * (p oder q groesser als MAX_PERIOD) oder der Modus keine periodischen
+     * Gewichte besitzt.
+     */
+    static PeriodicKernel create(int oldSize, int newSize, int mode) {
+        if (mode != Picture.NEAREST && mode != Picture.LINEAR)
+            return null;
+        if (oldSize < 2 || newSize < 1)
+            return null;
+
+        int g = gcd(oldSize, newSize);
+        int p = newSize / g;
+        int q = oldSize / g;
+        if (p > MAX_PERIOD || q > MAX_PERIOD)
+            return null;
+
+        PeriodicKernel kernel = new PeriodicKernel();
+        kernel.mode = mode;
+        kernel.oldSize = oldSize;
+        kernel.newSize = newSize;
+        kernel.p = p;
+        kernel.q = q;
+        kernel.offset = new int[p];
+        kernel.weight = new double[p];
+
+        /*
+         * Das neue Pixel k*p + r hat im alten Bild die Koordinate
+         * (k*p + r + 0.5) * q/p - 0.5 = k*q + num/den. Der Bruch wird exakt
+         * ganzzahlig zerlegt.
+         */
+        int den = 2 * p;
+        for (int r = 0; r < p; r++) {
+            int num = (2 * r + 1) * q - p;
+            int left = Math.floorDiv(num, den);
+            int rest = num - left * den;
+            if (mode == Picture.NEAREST) {
+                /* bei Gleichstand gewinnt wie in NearestNeighbour der rechte */
+                kernel.offset[r] = (2 * rest >= den) ? left + 1 : left;
+                kernel.weight[r] = 0;
+            } else {
+                kernel.offset[r] = left;
+                kernel.weight[r] = (double) rest / den;
+            }
+        }
+        return kernel;
+    }
+
+    /**
+     * Gibt an, ob die Achse linear exakt halbiert wird. Dann ist jedes neue
+     * Pixel der Mittelwert zweier alter Pixel (Box-Filter).
+     */
+    boolean isBoxFilter() {
+        return mode == Picture.LINEAR && p == 1 && q == 2;
+    }
+
+    /**
+     * Wendet die Tabelle auf die oldSize Werte an, die im Array src ab start
+     * mit dem Abstand stride liegen. Die newSize Ergebnisse werden ab
+     * dst[dstStart] mit dem Abstand dstStride abgelegt. Nur die Perioden am Rand muessen ihre
+     * Indizes auf [0, oldSize-1] beschraenken.
+     */
+    void apply(double[] src, int start, int stride, double[] dst,
+            int dstStart, int dstStride) {
+        int blocks = (newSize + p - 1) / p;
+
+        /* Perioden, deren Nachbarn alle innerhalb der Achse liegen */
+        int minOffset = offset[0];
+        int maxOffset = offset[p - 1] + 1;
+        int firstInner = Math.max(0, (-minOffset + q - 1) / q);
+        int lastInner = Math.min(blocks, (oldSize - 1 - maxOffset) / q + 1);
+        if (oldSize - 1 - maxOffset < 0)
+            lastInner = 0;
+
+        int o = dstStart;
+        for (int k = 0; k < blocks; k++) {
+            int base = k * q;
+            int phases = Math.min(p, newSize - k * p);
+            if (k >= firstInner && k < lastInner) {
+                for (int r = 0; r < phases; r++) {
+                    int i = start + (base + offset[r]) * stride;
+                    double w = weight[r];
+                    dst[o] = src[i] + w * (src[i + stride] - src[i]);
+                    o += dstStride;
+                }
+            } else {
+                for (int r = 0; r < phases; r++) {
+                    int i0 = clamp(base + offset[r]);
+                    int i1 = clamp(base + offset[r] + 1);
+                    double y0 = src[start + i0 * stride];
+                    double y1 = src[start + i1 * stride];
+                    dst[o] = y0 + weight[r] * (y1 - y0);
+                    o += dstStride;
+                }
+            }
+        }
+    }
+
+    private int clamp(int i) {
+        if (i < 0)
+            return 0;
+        if (i >= oldSize)
+            return oldSize - 1;
+        return i;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -4,6 +4,9 @@ import java.awt.image.*;
 import javax.imageio.*;
 import java.io.*;
 
+import dft.FFT2D;
+import dft.SpectralMask;
+
 /**
  * Diese Klasse verwaltet ein Bild im RGB-Format. Sie ermoeglicht das
  * Manipulieren und Skalieren des Bildes. Fuer die Bearbeitung dieser
@@ -89,8 +92,68 @@ public class Picture {
 
     /** Speichert das Bild im Pfad filename im Format formatName */
     public void save(String filename, String formatName) throws IOException {
+        save(filename, formatName, new PictureEncoder());
+    }
+
+    /**
+     * Speichert das Bild im Pfad filename im Format formatName. PNG und BMP
+     * werden mit encoder geschrieben (Kompressionsstufe, Filter und Threads
+     * sind dort einstellbar), alle anderen Formate mit ImageIO. Ein PNG
+     * bekommt einen Alphakanal, wenn das Bild nicht ueberall deckend ist. BMP
+     * wird immer ohne Alphakanal geschrieben.
+     */
+    public void save(String filename, String formatName, PictureEncoder encoder)
+            throws IOException {
         File f = new File(filename);
-        ImageIO.write(img, formatName, f);
+        String format = formatName.toLowerCase();
+        if (!format.equals("png") && !format.equals("bmp")) {
+            ImageIO.write(img, formatName, f);
+            return;
+        }
+
+        OutputStream out = new FileOutputStream(f);
+        try {
+            if (format.equals("png")) {
+                int[] rgb = getRGB();
+                encoder.writePng(rgb, width, height, hasTransparency(rgb), out);
+            } else
+                encoder.writeBmp(getRGB(), width, height, out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Gibt die Pixel als gepackte RGB-Werte Zeile fuer Zeile zurueck. Liegt
+     * das Bild bereits in diesem Format vor, wird der Puffer des Bildes selbst
+     * ohne Kopie zurueckgegeben: Aenderungen daran aendern das Bild, das
+     * Ergebnis darf also nur gelesen werden.
+     */
+    private int[] getRGB() {
+        int type = img.getType();
+        if ((type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB)
+                && img.getRaster().getDataBuffer() instanceof DataBufferInt
+                && img.getRaster().getParent() == null) {
+            int[] data = ((DataBufferInt) img.getRaster().getDataBuffer())
+                    .getData();
+            if (data.length == width * height)
+                return data;
+        }
+        return img.getRGB(0, 0, width, height, null, 0, width);
+    }
+
+    /**
+     * Hat das Bild einen Alphakanal und ist ein Pixel von rgb nicht voll
+     * deckend?
+     */
+    private boolean hasTransparency(int[] rgb) {
+        if (!img.getColorModel().hasAlpha())
+            return false;
+        for (int p : rgb) {
+            if ((p >>> 24) != 0xff)
+                return true;
+        }
+        return false;
     }
 
     /** Liefert eine String-Ausgabe der einzelnen Farbkanaele des Bildes */
@@ -175,12 +238,35 @@ public class Picture {
      */
     public void scale(int newWidth, int newHeight, int interpolationMode) {
 
+        /*
+         * Exakte rationale Verhaeltnisse (z.B. 2 oder 1/2) werden mit
+         * vorberechneten periodischen Gewichten skaliert
+         */
+        PeriodicKernel kernelX = PeriodicKernel.create(width, newWidth,
+                interpolationMode);
+        PeriodicKernel kernelY = PeriodicKernel.create(height, newHeight,
+                interpolationMode);
+        if (kernelX != null && kernelY != null) {
+            scalePeriodic(kernelX, kernelY);
+            return;
+        }
+        scaleInterpolated(newWidth, newHeight, interpolationMode);
+    }
+
+    /**
+     * Skaliert das Bild wie scale(), aber immer mit dem allgemeinen
+     * Interpolationsverfahren, auch wenn es fuer das Verhaeltnis periodische
+     * Gewichte gibt. Das Ergebnis stimmt mit scalePeriodic() bis auf die
+     * Rundung ueberein.
+     */
+    void scaleInterpolated(int newWidth, int newHeight, int interpolationMode) {
+
         /* Tatsaechlicher Skalierungsfaktor in x- und y-Richtung */
         double scale_x = (double) newWidth / width;
         double scale_y = (double) newHeight / height;
 
         /* Ermittlung des Interpolationsverfahren */
-        InterpolationMethod interpolation;
+        MultiChannelInterpolationMethod interpolation;
 
         switch (interpolationMode) {
         case NEAREST:
@@ -203,8 +289,8 @@ public class Picture {
         /**
          * Durch Festhalten der y-Werte wird fuer jede Zeile eine
          * Interpolationsfunktion aufgebaut und an den x-Werten der Pixel des
-         * neuen Bildes ausgewertet. Das ganze muss fuer alle Grundfarben
-         * unabhaengig voneinander geschehen.
+         * neuen Bildes ausgewertet. Die drei Grundfarben werden dabei als
+         * Kanaele derselben Interpolation behandelt.
          */
 
         /*
@@ -222,20 +308,21 @@ public class Picture {
 
         /* Fuer jede Zeile */
         for (int y = 1; y <= height; y++) {
-            /* Fuer jeden Farbwert des RGB */
-            for (int c = 0; c < 3; c++) {
-                /* Stuetzwerte setzten */
-                double[] dataPoints = new double[width];
-                for (int x = 1; x <= width; x++) {
-                    dataPoints[x - 1] = getPixel(x, y, c);
-                }
-                /* Interpolationsmethode initialisieren */
-                interpolation.init(a, b, n, dataPoints);
-                /* Interpolation auswerten an neuen Stellen */
-                for (int x = 1; x <= newWidth; x++) {
-                    tempImageArray[x - 1][y - 1][c] = interpolation.evaluate(x);
+            /* Stuetzwerte setzten, verschraenkt als r,g,b */
+            double[] dataPoints = new double[width * 3];
+            for (int x = 1; x <= width; x++) {
+                for (int c = 0; c < 3; c++) {
+                    dataPoints[(x - 1) * 3 + c] = getPixel(x, y, c);
                 }
             }
+            /* Interpolationsmethode initialisieren */
+            interpolation.initChannels(a, b, n, dataPoints, 3);
+            /* Interpolation auswerten an neuen Stellen 1, 2, ..., newWidth */
+            double[][] row = new double[newWidth][];
+            for (int x = 1; x <= newWidth; x++) {
+                row[x - 1] = tempImageArray[x - 1][y - 1];
+            }
+            interpolation.evaluateChannelsUniform(1, 1, newWidth, row);
         }
 
 
@@ -244,8 +331,7 @@ public class Picture {
          * In tempImageArray sind alle noetigen Werte in den Zeilen des alten
          * Bildes bekannt. Darauf basierend wird jetzt in jeder Spalte eine
          * Interpolationsfunktion aufgebaut und an den Pixelstellen des neuen
-         * Bildes ausgewertet. Das ganze muss fuer alle Grundfarben unabhaengig
-         * voneinander geschehen.
+         * Bildes ausgewertet, wieder fuer alle Grundfarben gemeinsam.
          */
 
         /*
@@ -261,21 +347,17 @@ public class Picture {
 
         /* Fuer jede Spalte */
         for (int x = 1; x <= newWidth; x++) {
-            /* Fuer jeden Farbwert des RGB */
-            for (int c = 0; c < 3; c++) {
-                /* Stuetzwerte setzten */
-                double[] dataPoints = new double[height];
-                for (int y = 1; y <= height; y++) {
-                    dataPoints[y - 1] = tempImageArray[x - 1][y - 1][c];
-                }
-                /* Interpolation initialisieren */
-                interpolation.init(a, b, n, dataPoints);
-                /* Interpolation auswerten an neuen Stellen */
-                for (int y = 1; y <= newHeight; y++) {
-                    resultImageArray[x - 1][y - 1][c] = interpolation
-                            .evaluate(y);
-                }
+            /* Stuetzwerte setzten, verschraenkt als r,g,b */
+            double[] dataPoints = new double[height * 3];
+            for (int y = 1; y <= height; y++) {
+                System.arraycopy(tempImageArray[x - 1][y - 1], 0, dataPoints,
+                        (y - 1) * 3, 3);
             }
+            /* Interpolation initialisieren */
+            interpolation.initChannels(a, b, n, dataPoints, 3);
+            /* Interpolation auswerten an neuen Stellen 1, 2, ..., newHeight */
+            interpolation.evaluateChannelsUniform(1, 1, newHeight,
+                    resultImageArray[x - 1]);
         }
 
         /*******************************************************/
@@ -300,4 +382,139 @@ public class Picture {
         }
 
     }
+
+    /**
+     * Filtert das Bild im Frequenzbereich: Jeder Farbkanal wird mit FFT2D
+     * transformiert, mit mask gewichtet und zuruecktransformiert. Der Aufwand
+     * ist O(N log N) fuer N Pixel, unabhaengig von der Groesse des Filters.
+     * Weil die FFT periodisch ist, wird das Bild am Rand zyklisch fortgesetzt:
+     * Pixel am linken Rand werden mit denen am rechten vermischt.
+     */
+    public void filter(SpectralMask mask) {
+        int[] src = img.getRGB(0, 0, width, height, null, 0, width);
+        double[][] planes = new double[3][width * height];
+        for (int i = 0; i < src.length; i++) {
+            planes[RED][i] = src[i] >> 16 & 0xff;
+            planes[GREEN][i] = src[i] >> 8 & 0xff;
+            planes[BLUE][i] = src[i] & 0xff;
+        }
+
+        new FFT2D(width, height).filter(planes, mask);
+
+        int[] dst = new int[width * height];
+        for (int i = 0; i < dst.length; i++) {
+            int r = clamp(planes[RED][i]);
+            int g = clamp(planes[GREEN][i]);
+            int b = clamp(planes[BLUE][i]);
+            dst[i] = (src[i] & 0xff000000) | r << 16 | g << 8 | b;
+        }
+        this.img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        this.img.setRGB(0, 0, width, height, dst, 0, width);
+    }
+
+    /**
+     * Gausscher Weichzeichner mit der Standardabweichung sigma in Pixeln. Im
+     * Frequenzbereich ist das die Gewichtung exp(-2 pi^2 sigma^2 f^2), die
+     * Rechenzeit haengt also nicht von sigma ab.
+     */
+    public void gaussianBlur(double sigma) {
+        filter(gaussian(sigma));
+    }
+
+    /**
+     * Unscharfe Maskierung: Das Bild plus amount mal die Differenz zum mit
+     * sigma weichgezeichneten Bild, also die Gewichtung 1 + amount*(1 - G)
+     */
+    public void sharpen(double sigma, double amount) {
+        SpectralMask g = gaussian(sigma);
+        filter((fx, fy, w, h) -> 1 + amount * (1 - g.weight(fx, fy, w, h)));
+    }
+
+    /** Gewichtung des Gaussschen Weichzeichners mit sigma in Pixeln */
+    private static SpectralMask gaussian(double sigma) {
+        double c = -2 * Math.PI * Math.PI * sigma * sigma;
+        return (fx, fy, w, h) -> {
+            double u = (double) fx / w;
+            double v = (double) fy / h;
+            return Math.exp(c * (u * u + v * v));
+        };
+    }
+
+    /** Rundet einen Farbwert und schneidet ihn auf [0,255] ab */
+    private static int clamp(double c) {
+        long v = Math.round(c);
+        return (v < 0) ? 0 : (v > 255) ? 255 : (int) v;
+    }
+
+    /**
+     * Skaliert das Bild mit den periodischen Gewichtstabellen kernelX und
+     * kernelY. Gearbeitet wird direkt auf den gepackten RGB-Werten des Bildes.
+     * Die exakte Halbierung beider Achsen ist ein 2x2 Box-Filter und wird
+     * ganzzahlig berechnet.
+     */
+    private void scalePeriodic(PeriodicKernel kernelX, PeriodicKernel kernelY) {
+        int newWidth = kernelX.newSize;
+        int newHeight = kernelY.newSize;
+
+        int[] src = img.getRGB(0, 0, width, height, null, 0, width);
+        int[] dst = new int[newWidth * newHeight];
+
+        if (kernelX.isBoxFilter() && kernelY.isBoxFilter()) {
+            for (int y = 0; y < newHeight; y++) {
+                int i = 2 * y * width;
+                int o = y * newWidth;
+                for (int x = 0; x < newWidth; x++) {
+                    int p00 = src[i];
+                    int p01 = src[i + 1];
+                    int p10 = src[i + width];
+                    int p11 = src[i + width + 1];
+                    int r = ((p00 >> 16 & 0xff) + (p01 >> 16 & 0xff)
+                            + (p10 >> 16 & 0xff) + (p11 >> 16 & 0xff) + 2) >> 2;
+                    int g = ((p00 >> 8 & 0xff) + (p01 >> 8 & 0xff)
+                            + (p10 >> 8 & 0xff) + (p11 >> 8 & 0xff) + 2) >> 2;
+                    int b = ((p00 & 0xff) + (p01 & 0xff) + (p10 & 0xff)
+                            + (p11 & 0xff) + 2) >> 2;
+                    dst[o++] = 0xff000000 | r << 16 | g << 8 | b;
+                    i += 2;
+                }
+            }
+        } else {
+            /* Farbkanaele als Werte aus [0,255], verschraenkt als r,g,b */
+            double[] plane = new double[width * height * 3];
+            for (int i = 0, j = 0; i < src.length; i++) {
+                plane[j++] = src[i] >> 16 & 0xff;
+                plane[j++] = src[i] >> 8 & 0xff;
+                plane[j++] = src[i] & 0xff;
+            }
+
+            /* erst alle Zeilen, dann alle Spalten */
+            double[] temp = new double[newWidth * height * 3];
+            for (int y = 0; y < height; y++) {
+                for (int c = 0; c < 3; c++) {
+                    kernelX.apply(plane, y * width * 3 + c, 3, temp,
+                            y * newWidth * 3 + c, 3);
+                }
+            }
+            double[] result = new double[newWidth * newHeight * 3];
+            for (int x = 0; x < newWidth; x++) {
+                for (int c = 0; c < 3; c++) {
+                    kernelY.apply(temp, x * 3 + c, newWidth * 3, result,
+                            x * 3 + c, newWidth * 3);
+                }
+            }
+
+            for (int i = 0, j = 0; i < dst.length; i++, j += 3) {
+                int r = (int) Math.round(result[j]);
+                int g = (int) Math.round(result[j + 1]);
+                int b = (int) Math.round(result[j + 2]);
+                dst[i] = 0xff000000 | r << 16 | g << 8 | b;
+            }
+        }
+
+        this.img = new BufferedImage(newWidth, newHeight,
+                BufferedImage.TYPE_INT_ARGB);
+        this.img.setRGB(0, 0, newWidth, newHeight, dst, 0, newWidth);
+        width = newWidth;
+        height = newHeight;
+    }
 }
@@ -0,0 +1,260 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * PictureCache laedt Bilder im Hintergrund und haelt die fertigen Picture
+ * Objekte in einem LRU-Zwischenspeicher, dessen Groesse in Bytes beschraenkt
+ * ist. Jedes Bild wird dabei schon auf eine Zielgroesse (z.B. die
+ * Anzeigeflaeche) verkleinert: Grosse Bilder werden bereits beim Dekodieren
+ * unterabgetastet und danach mit Picture.scale() passend skaliert.
+ *
+ * Die Picture Objekte im Zwischenspeicher werden von mehreren Aufrufern
+ * geteilt und duerfen nicht veraendert werden.
+ *
+ * Vorgeladen wird nur, was beim letzten Aufruf von prefetch() angefragt
+ * wurde: Noch nicht begonnene Ladevorgaenge eines frueheren Aufrufs werden
+ * aus der Warteschlange entfernt. Mit shutdown() werden die Threads beendet.
+ */
+class PictureCache {
+
+    /** Schluessel eines Eintrags: Datei, Zielgroesse und Interpolation */
+    private static class Key {
+        final String path;
+        final int maxWidth, maxHeight, mode;
+
+        Key(File file, int maxWidth, int maxHeight, int mode) {
+            this.path = file.getAbsolutePath();
+            this.maxWidth = maxWidth;
+            this.maxHeight = maxHeight;
+            this.mode = mode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key k = (Key) o;
+            return path.equals(k.path) && maxWidth == k.maxWidth
+                    && maxHeight == k.maxHeight && mode == k.mode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, maxWidth, maxHeight, mode);
+        }
+    }
+
+    /** Obergrenze fuer den Speicher aller Bilder im Zwischenspeicher */
+    private final long maxBytes;
+
+    /** aktuell belegter Speicher */
+    private long usedBytes = 0;
+
+    /** die fertigen Bilder in LRU-Reihenfolge */
+    private final LinkedHashMap<Key, Picture> pictures = new LinkedHashMap<Key, Picture>(
+            16, 0.75f, true);
+
+    /** Bilder, die gerade geladen werden */
+    private final Map<Key, CompletableFuture<Picture>> pending = new HashMap<Key, CompletableFuture<Picture>>();
+
+    /**
+     * Die Ladeauftraege der Bilder aus pending, die nur vorgeladen und noch
+     * nicht mit get() angefragt wurden
+     */
+    private final Map<Key, Runnable> prefetches = new HashMap<Key, Runnable>();
+
+    /** Threads zum Dekodieren und Skalieren */
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * Erzeugt einen Zwischenspeicher mit hoechstens maxBytes Bytes an
+     * Bilddaten und threads Hintergrund-Threads
+     */
+    public PictureCache(long maxBytes, int threads) {
+        this.maxBytes = maxBytes;
+        pool = new ThreadPoolExecutor(threads, threads, 0L,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "PictureCache");
+                        t.setDaemon(true);
+                        t.setPriority(Thread.NORM_PRIORITY - 1);
+                        return t;
+                    }
+                });
+    }
+
+    /**
+     * Gibt das Bild file, verkleinert auf hoechstens maxWidth x maxHeight,
+     * zurueck. Liegt es schon im Zwischenspeicher, ist das Ergebnis sofort
+     * fertig, sonst wird es im Hintergrund geladen. Ist eine der Groessen
+     * kleiner 1, wird nicht verkleinert.
+     */
+    public synchronized CompletableFuture<Picture> get(File file,
+            int maxWidth, int maxHeight, int mode) {
+        Key key = new Key(file, maxWidth, maxHeight, mode);
+        Picture pic = pictures.get(key);
+        if (pic != null)
+            return CompletableFuture.completedFuture(pic);
+
+        CompletableFuture<Picture> future = pending.get(key);
+        if (future != null) {
+            // wird jetzt gebraucht und darf nicht mehr verworfen werden
+            prefetches.remove(key);
+            return future;
+        }
+        start(key, file);
+        return pending.get(key);
+    }
+
+    /**
+     * Laedt die Bilder files im Hintergrund vor, ohne auf sie zu warten.
+     * Vorgeladene Bilder frueherer Aufrufe, die nicht in files stehen und noch
+     * nicht begonnen wurden, werden nicht mehr geladen.
+     */
+    public synchronized void prefetch(List<File> files, int maxWidth,
+            int maxHeight, int mode) {
+        Set<Key> wanted = new HashSet<Key>();
+        for (File f : files)
+            wanted.add(new Key(f, maxWidth, maxHeight, mode));
+
+        Iterator<Map.Entry<Key, Runnable>> it = prefetches.entrySet()
+                .iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Runnable> e = it.next();
+            if (wanted.contains(e.getKey()))
+                continue;
+            // laeuft der Auftrag schon, wird er zu Ende gefuehrt
+            if (pool.remove(e.getValue()))
+                pending.remove(e.getKey()).cancel(false);
+            it.remove();
+        }
+
+        for (File f : files) {
+            Key key = new Key(f, maxWidth, maxHeight, mode);
+            if (!pictures.containsKey(key) && !pending.containsKey(key))
+                prefetches.put(key, start(key, f));
+        }
+    }
+
+    /** Beendet die Hintergrund-Threads, danach ist get() nicht mehr erlaubt */
+    public synchronized void shutdown() {
+        pool.shutdownNow();
+        // cancel() ruft finished() sofort auf, das wieder pending aendert
+        List<CompletableFuture<Picture>> futures = new ArrayList<CompletableFuture<Picture>>(
+                pending.values());
+        pending.clear();
+        prefetches.clear();
+        for (CompletableFuture<Picture> future : futures)
+            future.cancel(false);
+    }
+
+    /**
+     * Stellt das Laden von file in die Warteschlange, traegt es in pending ein
+     * und gibt den Auftrag zurueck
+     */
+    private Runnable start(Key key, File file) {
+        final CompletableFuture<Picture> future = new CompletableFuture<Picture>();
+        Runnable task = () -> {
+            if (future.isDone())
+                return;
+            try {
+                future.complete(load(file, key.maxWidth, key.maxHeight,
+                        key.mode));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        pending.put(key, future);
+        future.whenComplete((p, e) -> finished(key, future, p));
+        pool.execute(task);
+        return task;
+    }
+
+    /** Uebernimmt ein fertig geladenes Bild und verdraengt alte Eintraege */
+    private synchronized void finished(Key key,
+            CompletableFuture<Picture> future, Picture pic) {
+        // abgebrochene Auftraege sind schon aus pending entfernt
+        if (pending.get(key) == future) {
+            pending.remove(key);
+            prefetches.remove(key);
+        }
+        if (pic == null || pic.isNull())
+            return;
+        long bytes = sizeOf(pic);
+        if (bytes > maxBytes)
+            return;
+        Picture old = pictures.put(key, pic);
+        if (old != null)
+            usedBytes -= sizeOf(old);
+        usedBytes += bytes;
+
+        Iterator<Map.Entry<Key, Picture>> it = pictures.entrySet().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, Picture> eldest = it.next();
+            if (eldest.getKey().equals(key))
+                continue;
+            usedBytes -= sizeOf(eldest.getValue());
+            it.remove();
+        }
+    }
+
+    /** Speicherbedarf eines Bildes mit 4 Bytes pro Pixel */
+    private static long sizeOf(Picture pic) {
+        return 4L * pic.getWidth() * pic.getHeight();
+    }
+
+    /**
+     * Dekodiert file und verkleinert es auf hoechstens maxWidth x maxHeight.
+     * Ist das Bild mindestens doppelt so gross wie noetig, liest der Decoder
+     * nur jede k-te Zeile und Spalte.
+     */
+    static Picture load(File file, int maxWidth, int maxHeight, int mode)
+            throws IOException {
+        BufferedImage img = null;
+        ImageInputStream in = ImageIO.createImageInputStream(file);
+        if (in == null)
+            throw new IOException(file + " kann nicht gelesen werden");
+        try {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext())
+                throw new IOException(file + " hat kein bekanntes Bildformat");
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (maxWidth > 0 && maxHeight > 0) {
+                    int k = Math.min(reader.getWidth(0) / maxWidth,
+                            reader.getHeight(0) / maxHeight);
+                    if (k > 1)
+                        param.setSourceSubsampling(k, k, 0, 0);
+                }
+                img = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            in.close();
+        }
+
+        Picture pic = new Picture(img);
+        if (maxWidth > 0 && maxHeight > 0
+                && (pic.getWidth() > maxWidth || pic.getHeight() > maxHeight)) {
+            double scale = Math.min((double) maxWidth / pic.getWidth(),
+                    (double) maxHeight / pic.getHeight());
+            int newWidth = Math.max(1, (int) Math.round(pic.getWidth() * scale));
+            int newHeight = Math.max(1, (int) Math.round(pic.getHeight() * scale));
+            pic.scale(newWidth, newHeight, mode);
+        }
+        return pic;
+    }
+}
@@ -0,0 +1,417 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+/**
+ * Die Klasse PictureEncoder schreibt Bilder als PNG oder als unkomprimiertes
+ * BMP, ohne den Umweg ueber ImageIO. Die Pixel werden als gepackte RGB-Werte
+ * (0xAARRGGBB, Zeile fuer Zeile) uebergeben. Der Alphakanal wird nur als PNG
+ * mit Farbtyp RGBA geschrieben, beim BMP und beim PNG mit Farbtyp RGB wird er
+ * ignoriert.
+ *
+ * Beim PNG werden die Zeilen in Bloecke aufgeteilt, die unabhaengig
+ * voneinander gefiltert und komprimiert werden koennen. Jeder Block endet mit
+ * einem Sync-Flush, sodass die einzelnen Deflate-Stroeme direkt
+ * hintereinander gehaengt einen gueltigen zlib-Strom ergeben. Die
+ * Adler-32-Pruefsummen der Bloecke werden am Ende zusammengesetzt.
+ */
+public class PictureEncoder {
+
+    /** die verschiedenen PNG-Filter */
+    final static int FILTER_NONE = 0; /* Zeile unveraendert */
+    final static int FILTER_SUB = 1; /* Differenz zum linken Pixel */
+    final static int FILTER_UP = 2; /* Differenz zum Pixel darueber */
+    final static int FILTER_AVERAGE = 3; /* Differenz zum Mittel aus links und oben */
+    final static int FILTER_PAETH = 4; /* Differenz zum Paeth-Praediktor */
+    final static int FILTER_ADAPTIVE = 5; /* bester Filter pro Zeile */
+
+    /** Bytes pro Pixel (RGB mit 8 Bit je Kanal) */
+    private final static int BPP = 3;
+
+    /** Bytes pro Pixel mit Alphakanal (RGBA) */
+    private final static int BPP_ALPHA = 4;
+
+    /** Modul der Adler-32-Pruefsumme */
+    private final static int ADLER_BASE = 65521;
+
+    /** Kompressionsstufe 0 bis 9 bzw. Deflater.DEFAULT_COMPRESSION */
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /** verwendeter PNG-Filter */
+    private int filter = FILTER_ADAPTIVE;
+
+    /** Anzahl der Threads fuer die Kompression */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /** Mindestanzahl an Zeilen pro Block */
+    private int minRowsPerBlock = 32;
+
+    /** Setzt die Kompressionsstufe von 0 (keine) bis 9 (beste) */
+    public void setCompressionLevel(int level) {
+        if (level < 0 || level > 9)
+            throw new IllegalArgumentException("Kompressionsstufe " + level
+                    + " liegt nicht in [0,9]");
+        compressionLevel = level;
+    }
+
+    /** Setzt den PNG-Filter, z.B. FILTER_PAETH oder FILTER_ADAPTIVE */
+    public void setFilter(int filter) {
+        if (filter < FILTER_NONE || filter > FILTER_ADAPTIVE)
+            throw new IllegalArgumentException("Unbekannter Filter " + filter);
+        this.filter = filter;
+    }
+
+    /** Setzt die Anzahl der Threads, die Bloecke komprimieren */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Setzt die Mindestanzahl an Zeilen pro Block. Kleinere Bloecke verteilen
+     * sich besser auf die Threads, kosten aber etwas Kompression, weil jeder
+     * Block ohne das Woerterbuch seines Vorgaengers beginnt.
+     */
+    public void setMinRowsPerBlock(int rows) {
+        minRowsPerBlock = Math.max(1, rows);
+    }
+
+    /** Schreibt das Bild rgb der Groesse width x height als PNG nach out */
+    public void writePng(int[] rgb, int width, int height, OutputStream out)
+            throws IOException {
+        writePng(rgb, width, height, false, out);
+    }
+
+    /**
+     * Schreibt das Bild rgb der Groesse width x height als PNG nach out, mit
+     * alpha als RGBA (Farbtyp 6), sonst als RGB (Farbtyp 2)
+     */
+    public void writePng(int[] rgb, int width, int height, boolean alpha,
+            OutputStream out) throws IOException {
+        final int bpp = alpha ? BPP_ALPHA : BPP;
+        int blockCount = Math.max(1,
+                Math.min(threads * 4, height / minRowsPerBlock));
+        int rowsPerBlock = (height + blockCount - 1) / blockCount;
+        blockCount = (height + rowsPerBlock - 1) / rowsPerBlock;
+
+        /* Bloecke filtern und komprimieren */
+        List<Callable<Block>> tasks = new ArrayList<Callable<Block>>();
+        for (int i = 0; i < blockCount; i++) {
+            final int first = i * rowsPerBlock;
+            final int last = Math.min(height, first + rowsPerBlock);
+            final boolean finish = (i == blockCount - 1);
+            tasks.add(new Callable<Block>() {
+                @Override
+                public Block call() {
+                    return compressBlock(rgb, width, bpp, first, last,
+                            finish);
+                }
+            });
+        }
+        List<Block> blocks = new ArrayList<Block>();
+        if (threads == 1 || blockCount == 1) {
+            for (Callable<Block> task : tasks) {
+                try {
+                    blocks.add(task.call());
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
+        } else {
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(
+                    threads, blockCount));
+            try {
+                for (Future<Block> f : pool.invokeAll(tasks))
+                    blocks.add(f.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        /* Pruefsumme des gesamten zlib-Stroms */
+        long adler = 1;
+        for (Block b : blocks)
+            adler = adlerCombine(adler, b.adler, b.length);
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(
+                out, 1 << 16));
+        data.write(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a,
+                '\n' });
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream h = new DataOutputStream(header);
+        h.writeInt(width);
+        h.writeInt(height);
+        h.writeByte(8); /* Bit pro Kanal */
+        h.writeByte(alpha ? 6 : 2); /* Farbtyp RGBA bzw. RGB */
+        h.writeByte(0); /* Deflate */
+        h.writeByte(0); /* adaptive Filter */
+        h.writeByte(0); /* kein Interlacing */
+        writeChunk(data, "IHDR", header.toByteArray());
+
+        writeChunk(data, "IDAT", zlibHeader());
+        for (Block b : blocks)
+            writeChunk(data, "IDAT", b.data);
+        writeChunk(data, "IDAT", new byte[] { (byte) (adler >>> 24),
+                (byte) (adler >>> 16), (byte) (adler >>> 8), (byte) adler });
+        writeChunk(data, "IEND", new byte[0]);
+        data.flush();
+    }
+
+    /**
+     * Schreibt das Bild rgb der Groesse width x height als unkomprimiertes
+     * 24-Bit-BMP nach out. Die Zeilen werden direkt aus dem Puffer geschrieben.
+     */
+    public void writeBmp(int[] rgb, int width, int height, OutputStream out)
+            throws IOException {
+        int rowBytes = (width * BPP + 3) & ~3;
+        int imageSize = rowBytes * height;
+
+        byte[] header = new byte[54];
+        header[0] = 'B';
+        header[1] = 'M';
+        putIntLE(header, 2, 54 + imageSize); /* Dateigroesse */
+        putIntLE(header, 10, 54); /* Beginn der Pixel */
+        putIntLE(header, 14, 40); /* Groesse des Info-Headers */
+        putIntLE(header, 18, width);
+        putIntLE(header, 22, height); /* positiv: unterste Zeile zuerst */
+        header[26] = 1; /* Ebenen */
+        header[28] = 24; /* Bit pro Pixel */
+        putIntLE(header, 34, imageSize);
+        putIntLE(header, 38, 2835); /* 72 dpi */
+        putIntLE(header, 42, 2835);
+
+        OutputStream o = new BufferedOutputStream(out, 1 << 16);
+        o.write(header);
+        byte[] row = new byte[rowBytes];
+        for (int y = height - 1; y >= 0; y--) {
+            int i = y * width;
+            int j = 0;
+            for (int x = 0; x < width; x++) {
+                int p = rgb[i + x];
+                row[j++] = (byte) p;
+                row[j++] = (byte) (p >> 8);
+                row[j++] = (byte) (p >> 16);
+            }
+            o.write(row);
+        }
+        o.flush();
+    }
+
+    /** Ein komprimierter Block mit Pruefsumme und Laenge der Rohdaten */
+    private static class Block {
+        byte[] data;
+        long adler;
+        long length;
+    }
+
+    /**
+     * Filtert und komprimiert die Zeilen first bis last-1 mit bpp Bytes pro
+     * Pixel
+     */
+    private Block compressBlock(int[] rgb, int width, int bpp, int first,
+            int last, boolean finish) {
+        int rowBytes = width * bpp;
+        byte[] raw = new byte[(last - first) * (rowBytes + 1)];
+        byte[] prev = new byte[rowBytes];
+        byte[] cur = new byte[rowBytes];
+        byte[][] candidates = new byte[5][rowBytes];
+
+        if (first > 0)
+            unpackRow(rgb, width, bpp, first - 1, prev);
+        int pos = 0;
+        for (int y = first; y < last; y++) {
+            unpackRow(rgb, width, bpp, y, cur);
+            int type = filter;
+            if (filter == FILTER_ADAPTIVE) {
+                /* Minimum der Betragssumme als Heuristik */
+                long best = Long.MAX_VALUE;
+                for (int t = FILTER_NONE; t <= FILTER_PAETH; t++) {
+                    applyFilter(t, bpp, cur, prev, candidates[t]);
+                    long sum = 0;
+                    for (byte b : candidates[t])
+                        sum += Math.abs(b);
+                    if (sum < best) {
+                        best = sum;
+                        type = t;
+                    }
+                }
+            } else {
+                applyFilter(type, bpp, cur, prev, candidates[type]);
+            }
+            raw[pos++] = (byte) type;
+            System.arraycopy(candidates[type], 0, raw, pos, rowBytes);
+            pos += rowBytes;
+
+            byte[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+
+        Block block = new Block();
+        Adler32 adler = new Adler32();
+        adler.update(raw);
+        block.adler = adler.getValue();
+        block.length = raw.length;
+
+        Deflater deflater = new Deflater(compressionLevel, true);
+        deflater.setInput(raw);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+        byte[] buf = new byte[1 << 16];
+        if (finish) {
+            deflater.finish();
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                out.write(buf, 0, n);
+            }
+        } else {
+            /* Sync-Flush: der Strom endet an einer Bytegrenze, aber nicht final */
+            int n;
+            do {
+                n = deflater.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+                out.write(buf, 0, n);
+            } while (n == buf.length);
+        }
+        deflater.end();
+        block.data = out.toByteArray();
+        return block;
+    }
+
+    /**
+     * Schreibt die Zeile y als Bytefolge r,g,b,r,g,b,... nach row, bei bpp = 4
+     * als r,g,b,a,r,g,b,a,...
+     */
+    private static void unpackRow(int[] rgb, int width, int bpp, int y,
+            byte[] row) {
+        int i = y * width;
+        int j = 0;
+        for (int x = 0; x < width; x++) {
+            int p = rgb[i + x];
+            row[j++] = (byte) (p >> 16);
+            row[j++] = (byte) (p >> 8);
+            row[j++] = (byte) p;
+            if (bpp == BPP_ALPHA)
+                row[j++] = (byte) (p >>> 24);
+        }
+    }
+
+    /**
+     * Wendet den PNG-Filter type auf die Zeile cur mit Vorgaenger prev und bpp
+     * Bytes pro Pixel an
+     */
+    private static void applyFilter(int type, int bpp, byte[] cur, byte[] prev,
+            byte[] out) {
+        int n = cur.length;
+        switch (type) {
+        case FILTER_NONE:
+            System.arraycopy(cur, 0, out, 0, n);
+            break;
+        case FILTER_SUB:
+            for (int i = 0; i < n; i++) {
+                int left = (i >= bpp) ? cur[i - bpp] & 0xff : 0;
+                out[i] = (byte) ((cur[i] & 0xff) - left);
+            }
+            break;
+        case FILTER_UP:
+            for (int i = 0; i < n; i++)
+                out[i] = (byte) ((cur[i] & 0xff) - (prev[i] & 0xff));
+            break;
+        case FILTER_AVERAGE:
+            for (int i = 0; i < n; i++) {
+                int left = (i >= bpp) ? cur[i - bpp] & 0xff : 0;
+                out[i] = (byte) ((cur[i] & 0xff) - ((left + (prev[i] & 0xff)) >> 1));
+            }
+            break;
+        case FILTER_PAETH:
+            for (int i = 0; i < n; i++) {
+                int left = (i >= bpp) ? cur[i - bpp] & 0xff : 0;
+                int up = prev[i] & 0xff;
+                int upLeft = (i >= bpp) ? prev[i - bpp] & 0xff : 0;
+                out[i] = (byte) ((cur[i] & 0xff) - paeth(left, up, upLeft));
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    /** Paeth-Praediktor aus der PNG-Spezifikation */
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc)
+            return a;
+        if (pb <= pc)
+            return b;
+        return c;
+    }
+
+    /** Die zwei Kopfbytes des zlib-Stroms passend zur Kompressionsstufe */
+    private byte[] zlibHeader() {
+        int cmf = 0x78; /* Deflate mit 32K-Fenster */
+        int level;
+        if (compressionLevel == Deflater.DEFAULT_COMPRESSION)
+            level = 2;
+        else if (compressionLevel < 2)
+            level = 0;
+        else if (compressionLevel < 6)
+            level = 1;
+        else if (compressionLevel == 6)
+            level = 2;
+        else
+            level = 3;
+        int flg = level << 6;
+        flg += 31 - ((cmf << 8) + flg) % 31;
+        return new byte[] { (byte) cmf, (byte) flg };
+    }
+
+    /**
+     * Setzt die Adler-32-Pruefsumme zweier aufeinanderfolgender Datenbloecke
+     * zusammen. adler2 gehoert zum zweiten Block der Laenge len2.
+     */
+    static long adlerCombine(long adler1, long adler2, long len2) {
+        long rem = len2 % ADLER_BASE;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (rem * sum1) % ADLER_BASE;
+        sum1 += (adler2 & 0xffff) + ADLER_BASE - 1;
+        sum2 += ((adler1 >>> 16) & 0xffff) + ((adler2 >>> 16) & 0xffff)
+                + ADLER_BASE - rem;
+        if (sum1 >= ADLER_BASE)
+            sum1 -= ADLER_BASE;
+        if (sum1 >= ADLER_BASE)
+            sum1 -= ADLER_BASE;
+        if (sum2 >= ((long) ADLER_BASE << 1))
+            sum2 -= ((long) ADLER_BASE << 1);
+        if (sum2 >= ADLER_BASE)
+            sum2 -= ADLER_BASE;
+        return sum1 | (sum2 << 16);
+    }
+
+    /** Schreibt einen PNG-Chunk mit Laenge, Typ, Daten und CRC */
+    private static void writeChunk(DataOutputStream out, String type,
+            byte[] data) throws IOException {
+        byte[] t = type.getBytes("US-ASCII");
+        CRC32 crc = new CRC32();
+        crc.update(t);
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(t);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static void putIntLE(byte[] b, int pos, int v) {
+        b[pos] = (byte) v;
+        b[pos + 1] = (byte) (v >> 8);
+        b[pos + 2] = (byte) (v >> 16);
+        b[pos + 3] = (byte) (v >> 24);
+    }
+}
@@ -1,4 +1,13 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.imageio.ImageIO;
 import dft.DFT;
 import dft.IFFT;
 import dft.Complex;
@@ -12,6 +21,24 @@ public class Test {
         testNewton();
         testSplines();
         testFFT();
+        testFastFFT();
+        testGoertzel();
+        testChebyshev();
+        testRealFFT();
+        testComplexArray();
+        testParallelFFT();
+        testSTFT();
+        testConvolution();
+        testFFT2D();
+        testOutOfCoreFFT();
+        testBatchFFT();
+        testFftPlanner();
+        testNewtonBulk();
+        testScalePeriodic();
+        testSplineBoundary();
+        testInterpolationChannels();
+        testEvaluateUniform();
+        testPictureCacheShutdown();
     }
 
     private static void testNewton() {
@@ -60,4 +87,661 @@ public class Test {
 
         System.out.println("*************************************\n");
     }
+
+    public static void testFastFFT() {
+        System.out.println("Teste FFT gegen DFT");
+
+        // Zweierpotenz, Mixed-Radix (60 = 4*3*5) und Bluestein (97 prim)
+        for (int n : new int[] { 64, 60, 97 }) {
+            double[] v = new double[n];
+            for (int i = 0; i < n; i++)
+                v[i] = Math.sin(i) + i % 5;
+            Complex[] c = dft.DFT.dft(v);
+            Complex[] f = dft.FFT.fft(v);
+
+            double maxError = 0;
+            for (int i = 0; i < n; i++) {
+                double error = c[i].sub(f[i]).getRadius();
+                maxError = Math.max(maxError, error);
+            }
+            System.out.println("n = " + n + ", maximale Abweichung: "
+                    + maxError + " sollte sein: < 1E-12");
+        }
+
+        System.out.println("*************************************\n");
+    }
+
+    public static void testGoertzel() {
+        System.out.println("Teste Goertzel gegen DFT");
+
+        int n = 100;
+        double[] v = new double[n];
+        for (int i = 0; i < n; i++)
+            v[i] = Math.sin(i) + i % 5;
+        int[] bins = { 0, 1, 17, 50, 99 };
+        Complex[] c = dft.DFT.dft(v);
+        Complex[] g = dft.Goertzel.dft(v, bins);
+
+        double maxError = 0;
+        for (int b = 0; b < bins.length; b++) {
+            double error = c[bins[b]].sub(g[b]).getRadius();
+            maxError = Math.max(maxError, error);
+        }
+        System.out.println("Bins " + Arrays.toString(bins)
+                + ", maximale Abweichung: " + maxError
+                + " sollte sein: < 1E-12");
+
+        System.out.println("*************************************\n");
+    }
+
+    public static void testChebyshev() {
+        System.out.println("Teste Chebyshev-Interpolation von 1/(1+x^2) auf [-5, 5]");
+
+        ChebyshevInterpolation c = new ChebyshevInterpolation();
+        c.initAdaptive(-5, 5, x -> 1 / (1 + x * x), 1E-15);
+        double maxError = 0;
+        for (int i = 0; i <= 1000; i++) {
+            double x = -5 + i * 0.01;
+            maxError = Math.max(maxError, Math.abs(c.evaluate(x) - 1
+                    / (1 + x * x)));
+        }
+        System.out.println("Grad " + c.getDegree() + ", maximale Abweichung: "
+                + maxError + " sollte sein: < 1E-14");
+
+        System.out.println("*************************************\n");
+    }
+
+    public static void testRealFFT() {
+        System.out.println("Teste RealFFT gegen DFT");
+
+        // gerade und ungerade Laenge
+        for (int n : new int[] { 64, 61 }) {
+            double[] v = new double[n];
+            for (int i = 0; i < n; i++)
+                v[i] = Math.sin(i) + i % 5;
+            Complex[] c = dft.DFT.dft(v);
+            Complex[] r = dft.RealFFT.fft(v);
+
+            double maxError = 0;
+            for (int i = 0; i <= n / 2; i++)
+                maxError = Math.max(maxError, c[i].sub(r[i]).getRadius());
+            double[] w = dft.RealFFT.ifft(r, n);
+            System.out.println("n = " + n + ", " + r.length
+                    + " Eintraege, maximale Abweichung: " + maxError
+                    + ", zurueck: " + maxDifference(v, w)
+                    + " sollte sein: " + (n / 2 + 1) + " Eintraege, < 1E-12");
+        }
+
+        System.out.println("*************************************\n");
+    }
+
+    public static void testComplexArray() {
+        System.out.println("Teste ComplexArray gegen Complex und DFT");
+
+        int n = 60;
+        double[] v = new double[n];
+        for (int i = 0; i < n; i++)
+            v[i] = Math.sin(i) + i % 5;
+        Complex[] c = dft.DFT.dft(v);
+        dft.ComplexArray a = new dft.ComplexArray(v).fft();
+
+        // eintragsweise Rechnung gegen die Methoden von Complex
+        Complex[] w = new Complex[n];
+        for (int i = 0; i < n; i++)
+            w[i] = Complex.fromPolar(1, i);
+        dft.ComplexArray b = dft.ComplexArray.fromComplex(w);
+        dft.ComplexArray p = a.copy().mul(b).add(b).scale(2);
+        dft.ComplexArray q = a.copy().conjugateMul(b).sub(b);
+
+        double fftError = 0, opError = 0;
+        for (int i = 0; i < n; i++) {
+            fftError = Math.max(fftError, c[i].sub(a.get(i)).getRadius());
+            Complex pi = c[i].mul(w[i]).add(w[i]).mul(new Complex(2));
+            Complex qi = c[i].mul(w[i].conjugate()).sub(w[i]);
+            opError = Math.max(opError, pi.sub(p.get(i)).getRadius());
+            opError = Math.max(opError, qi.sub(q.get(i)).getRadius());
+        }
+        double[] back = a.copy().ifft().getReal();
+        System.out.println("FFT: " + fftError + ", Rechenoperationen: "
+                + opError + ", zurueck: " + maxDifference(v, back)
+                + " sollte sein: < 1E-12");
+
+        System.out.println("*************************************\n");
+    }
+
+    public static void testParallelFFT() {
+        System.out.println("Teste ParallelFFT gegen FFT");
+
+        // lang genug, damit parallel gerechnet wird
+        int n = 1 << 16;
+        double[] re = new double[n], im = new double[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = Math.sin(i) + i % 5;
+            im[i] = Math.cos(0.5 * i);
+        }
+        double[] pRe = re.clone(), pIm = im.clone();
+        dft.FFT.fft(re, im);
+        new dft.ParallelFFT().fft(pRe, pIm);
+
+        int different = 0;
+        for (int i = 0; i < n; i++)
+            if (re[i] != pRe[i] || im[i] != pIm[i])
+                different++;
+        System.out.println("n = " + n + ", verschiedene Eintraege: "
+                + different + " sollte sein: 0");
+
+        System.out.println("*************************************\n");
+    }
+
+    public static void testSTFT() {
+        System.out.println("Teste STFT und SlidingDFT gegen DFT");
+
+        int n = 32, hop = 12, length = 150;
+        double[] v = new double[length];
+        for (int i = 0; i < length; i++)
+            v[i] = Math.sin(i) + i % 5;
+
+        double[] window = dft.STFT.hann(n);
+        double[] maxError = new double[1];
+        int[] frames = new int[1];
+        dft.STFT stft = new dft.STFT(window, hop, (position, re, im) -> {
+            double[] frame = new double[n];
+            for (int i = 0; i < n; i++)
+                frame[i] = window[i] * v[(int) position + i];
+            Complex[] c = dft.DFT.dft(frame);
+            for (int k = 0; k <= n / 2; k++) {
+                double error = c[k].sub(new Complex(re[k], im[k])).getRadius();
+                maxError[0] = Math.max(maxError[0], error);
+            }
+            frames[0]++;
+        });
+        // in ungleich grossen Stuecken uebergeben
+        for (int i = 0; i < length; i += 7)
+            stft.process(v, i, Math.min(7, length - i));
+        System.out.println("STFT: " + frames[0] + " Fenster, maximale Abweichung: "
+                + maxError[0] + " sollte sein: " + ((length - n) / hop + 1)
+                + " Fenster, < 1E-12");
+
+        int[] bins = { 0, 3, 16 };
+        dft.SlidingDFT sliding = new dft.SlidingDFT(n, bins);
+        sliding.push(v);
+        Complex[] c = dft.DFT.dft(Arrays.copyOfRange(v, length - n, length));
+        double slidingError = 0;
+        for (int b = 0; b < bins.length; b++) {
+            Complex s = new Complex(sliding.getReal(b), sliding.getImaginaer(b));
+            slidingError = Math.max(slidingError, c[bins[b]].sub(s).getRadius());
+        }
+        System.out.println("SlidingDFT: maximale Abweichung: " + slidingError
+                + " sollte sein: < 1E-12");
+
+        System.out.println("*************************************\n");
+    }
+
+    public static void testConvolution() {
+        System.out.println("Teste Faltung und FIRFilter gegen direkte Faltung");
+
+        double[] x = new double[3000];
+        for (int i = 0; i < x.length; i++)
+            x[i] = Math.sin(i) + i % 5;
+
+        // direkt, mit einer FFT und blockweise mit FIRFilter
+        for (int m : new int[] { 10, 1000, 100 }) {
+            double[] h = new double[m];
+            for (int i = 0; i < m; i++)
+                h[i] = Math.cos(0.3 * i) / m;
+            double[] expected = directConvolution(x, h);
+            double convError = maxDifference(expected,
+                    dft.Convolution.convolve(x, h));
+
+            // Kreuzkorrelation ist die Faltung mit dem gespiegelten h
+            double[] r = new double[m];
+            for (int i = 0; i < m; i++)
+                r[i] = h[m - 1 - i];
+            double corrError = maxDifference(directConvolution(x, r),
+                    dft.Convolution.correlate(x, h));
+
+            double filterError = 0;
+            for (int method : new int[] { dft.FIRFilter.OVERLAP_ADD,
+                    dft.FIRFilter.OVERLAP_SAVE }) {
+                dft.FIRFilter filter = new dft.FIRFilter(h, method);
+                double[] y = new double[expected.length];
+                int out = 0;
+                for (int i = 0; i < x.length; i += 700) {
+                    double[] part = filter.process(x, i,
+                            Math.min(700, x.length - i));
+                    System.arraycopy(part, 0, y, out, part.length);
+                    out += part.length;
+                }
+                double[] rest = filter.flush();
+                System.arraycopy(rest, 0, y, out, rest.length);
+                filterError = Math.max(filterError, maxDifference(expected, y));
+            }
+            System.out.println("m = " + m + ", Faltung: " + convError
+                    + ", Korrelation: " + corrError + ", FIRFilter: "
+                    + filterError + " sollte sein: < 1E-12");
+        }
+
+        System.out.println("*************************************\n");
+    }
+
+    /** Faltung nach Definition, O(n*m) */
+    private static double[] directConvolution(double[] x, double[] h) {
+        double[] y = new double[x.length + h.length - 1];
+        for (int i = 0; i < x.length; i++)
+            for (int j = 0; j < h.length; j++)
+                y[i + j] += x[i] * h[j];
+        return y;
+    }
+
+    public static void testFFT2D() {
+        System.out.println("Teste FFT2D gegen 2D-DFT");
+
+        int width = 12, height = 10, n = width * height;
+        double[] re = new double[n], im = new double[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = Math.sin(i) + i % 5;
+            im[i] = Math.cos(0.5 * i);
+        }
+        double[] fRe = re.clone(), fIm = im.clone();
+        dft.FFT2D fft2d = new dft.FFT2D(width, height);
+        fft2d.fft(fRe, fIm);
+
+        // 2D-DFT nach Definition, normiert wie FFT2D.fft
+        double maxError = 0;
+        for (int ky = 0; ky < height; ky++) {
+            for (int kx = 0; kx < width; kx++) {
+                Complex sum = new Complex();
+                for (int y = 0; y < height; y++)
+                    for (int x = 0; x < width; x++) {
+                        double phi = -2 * Math.PI
+                                * ((double) kx * x / width + (double) ky * y / height);
+                        sum = sum.add(new Complex(re[y * width + x],
+                                im[y * width + x]).mul(Complex.fromPolar(1, phi)));
+                    }
+                Complex f = new Complex(fRe[ky * width + kx], fIm[ky * width + kx]);
+                maxError = Math.max(maxError,
+                        sum.mul(new Complex(1.0 / n)).sub(f).getRadius());
+            }
+        }
+        fft2d.ifft(fRe, fIm);
+        System.out.println(width + " x " + height + ", maximale Abweichung: "
+                + maxError + ", zurueck: "
+                + Math.max(maxDifference(re, fRe), maxDifference(im, fIm))
+                + " sollte sein: < 1E-12");
+
+        // Filtern mit der Gewichtung 1 laesst das Bild unveraendert
+        Picture pic = new Picture(width, height);
+        for (int y = 1; y <= height; y++)
+            for (int x = 1; x <= width; x++)
+                pic.setPixel(x, y, x / 12.0, y / 10.0, (x * y % 7) / 7.0);
+        Picture filtered = new Picture(pic.getImage());
+        filtered.filter((fx, fy, w, h) -> 1);
+        double pictureError = 0;
+        for (int y = 1; y <= height; y++)
+            for (int x = 1; x <= width; x++)
+                for (int c = 0; c < 3; c++)
+                    pictureError = Math.max(pictureError, Math.abs(
+                            pic.getPixel(x, y, c) - filtered.getPixel(x, y, c)));
+        System.out.println("Picture.filter mit Gewichtung 1, maximale Abweichung: "
+                + pictureError + " sollte sein: 0.0");
+
+        System.out.println("*************************************\n");
+    }
+
+    public static void testOutOfCoreFFT() {
+        System.out.println("Teste OutOfCoreFFT gegen FFT");
+
+        // 3000 = 50 x 60, kleine Stuecke, damit in Bloecken transponiert wird
+        int n = 3000;
+        double[] re = new double[n], im = new double[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = Math.sin(i) + i % 5;
+            im[i] = Math.cos(0.5 * i);
+        }
+        double[] fRe = re.clone(), fIm = im.clone();
+        dft.FFT.fft(fRe, fIm);
+
+        try {
+            Path in = Files.createTempFile("fft", ".bin");
+            Path out = Files.createTempFile("fft", ".bin");
+            try {
+                dft.OutOfCoreFFT fft = new dft.OutOfCoreFFT(16 * 256);
+                dft.OutOfCoreFFT.write(in, re, im);
+                fft.fft(in, out);
+                double[][] f = dft.OutOfCoreFFT.read(out);
+                fft.ifft(out);
+                double[][] back = dft.OutOfCoreFFT.read(out);
+                System.out.println("n = " + n + ", maximale Abweichung: "
+                        + Math.max(maxDifference(fRe, f[0]), maxDifference(fIm, f[1]))
+                        + ", zurueck: "
+                        + Math.max(maxDifference(re, back[0]), maxDifference(im, back[1]))
+                        + " sollte sein: < 1E-12");
+            } finally {
+                Files.deleteIfExists(in);
+                Files.deleteIfExists(out);
+            }
+        } catch (IOException e) {
+            System.out.println("Fehler: " + e);
+        }
+
+        System.out.println("*************************************\n");
+    }
+
+    public static void testBatchFFT() {
+        System.out.println("Teste BatchFFT gegen FFT");
+
+        // Zweierpotenz (umgestellte Radix-2-FFT) und Mixed-Radix
+        for (int n : new int[] { 64, 60 }) {
+            int count = 20;
+            double[][] re = new double[count][n], im = new double[count][n];
+            double[] cRe = new double[count * n], cIm = new double[count * n];
+            double[] iRe = new double[count * n], iIm = new double[count * n];
+            for (int s = 0; s < count; s++) {
+                for (int j = 0; j < n; j++) {
+                    re[s][j] = Math.sin(s + j) + j % 5;
+                    im[s][j] = Math.cos(0.5 * s * j);
+                    cRe[s * n + j] = iRe[j * count + s] = re[s][j];
+                    cIm[s * n + j] = iIm[j * count + s] = im[s][j];
+                }
+                dft.FFT.fft(re[s], im[s]);
+            }
+            new dft.BatchFFT(n, count, dft.BatchFFT.CONTIGUOUS).fft(cRe, cIm);
+            new dft.BatchFFT(n, count, dft.BatchFFT.INTERLEAVED).fft(iRe, iIm);
+
+            int different = 0;
+            for (int s = 0; s < count; s++)
+                for (int j = 0; j < n; j++) {
+                    if (re[s][j] != cRe[s * n + j] || im[s][j] != cIm[s * n + j])
+                        different++;
+                    if (re[s][j] != iRe[j * count + s] || im[s][j] != iIm[j * count + s])
+                        different++;
+                }
+            System.out.println("n = " + n + ", " + count
+                    + " Signale, verschiedene Eintraege: " + different
+                    + " sollte sein: 0");
+        }
+
+        System.out.println("*************************************\n");
+    }
+
+    public static void testFftPlanner() {
+        System.out.println("Teste FftPlanner gegen DFT");
+
+        try {
+            Path file = Files.createTempFile("fftwisdom", ".properties");
+            try {
+                dft.FftPlanner planner = new dft.FftPlanner(file);
+                for (int n : new int[] { 64, 60, 97 }) {
+                    double[] re = new double[n], im = new double[n];
+                    for (int i = 0; i < n; i++)
+                        re[i] = Math.sin(i) + i % 5;
+                    Complex[] c = dft.DFT.dft(re);
+                    dft.FftPlan plan = planner.plan(n, false, dft.FftPlanner.MEASURE);
+                    plan.execute(re, im);
+
+                    double maxError = 0;
+                    for (int i = 0; i < n; i++) {
+                        Complex f = new Complex(re[i] / n, im[i] / n);
+                        maxError = Math.max(maxError, c[i].sub(f).getRadius());
+                    }
+                    // ein neuer Planer liest die Messung aus der Datei
+                    String saved = new dft.FftPlanner(file).plan(n, false,
+                            dft.FftPlanner.ESTIMATE).getStrategyName();
+                    System.out.println("n = " + n + ", " + plan.getStrategyName()
+                            + ", gespeichert: " + saved + ", maximale Abweichung: "
+                            + maxError + " sollte sein: gleiches Verfahren, < 1E-12");
+                }
+
+                // unpassende Eintraege werden ignoriert
+                Files.write(file, "1.forward=bluestein\n60.forward=radix2\n"
+                        .getBytes("US-ASCII"));
+                dft.FftPlanner edited = new dft.FftPlanner(file);
+                System.out.println("Unpassende Eintraege: "
+                        + edited.plan(1, false, dft.FftPlanner.ESTIMATE).getStrategyName()
+                        + ", " + edited.plan(60, false, dft.FftPlanner.ESTIMATE).getStrategyName()
+                        + " sollte sein: radix2, mixed-radix");
+            } finally {
+                Files.deleteIfExists(file);
+                dft.FftPlan.clearCache();
+            }
+        } catch (IOException e) {
+            System.out.println("Fehler: " + e);
+        }
+
+        System.out.println("*************************************\n");
+    }
+
+    public static void testNewtonBulk() {
+        System.out.println("Teste NewtonPolynom.evaluate(double[])");
+
+        // Tschebyscheff-Stuetzstellen, damit der hohe Grad stabil bleibt
+        int n = 300;
+        double[] x = new double[n + 1];
+        double[] y = new double[n + 1];
+        for (int i = 0; i <= n; i++) {
+            x[i] = Math.cos(Math.PI * (i + 0.5) / (n + 1));
+            y[i] = Math.sin(3 * x[i]) + x[i] * x[i];
+        }
+        NewtonPolynom p = new NewtonPolynom(x, y);
+
+        // mehr als ein Block und ein unvollstaendiger letzter Block
+        int m = 2 * NewtonPolynom.BLOCK + 37;
+        double[] z = new double[m];
+        for (int k = 0; k < m; k++)
+            z[k] = -1 + 2.0 * k / (m - 1);
+        double[] bulk = p.evaluate(z);
+        int different = 0;
+        for (int k = 0; k < m; k++)
+            if (bulk[k] != p.evaluate(z[k]))
+                different++;
+        System.out.println("verschiedene Werte: " + different
+                + " sollte sein: 0");
+        System.out.println("Laenge bei 0 Stellen: " + p.evaluate(new double[0]).length
+                + " sollte sein: 0");
+        System.out.println("-------------------------------");
+    }
+
+    public static void testScalePeriodic() {
+        System.out.println("Teste Picture.scale mit periodischen Gewichten");
+
+        java.util.Random random = new java.util.Random(1);
+        BufferedImage img = new BufferedImage(12, 10,
+                BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 10; y++)
+            for (int x = 0; x < 12; x++)
+                img.setRGB(x, y, random.nextInt(0x1000000));
+
+        String[] names = { "NEAREST", "LINEAR", "POLY" };
+        // 2, 1/2 (Box-Filter) und 3/2
+        int[][] sizes = { { 24, 20 }, { 6, 5 }, { 18, 15 } };
+        for (int mode = Picture.NEAREST; mode <= Picture.POLY; mode++) {
+            int max = 0;
+            for (int[] size : sizes) {
+                Picture fast = new Picture(copy(img));
+                Picture slow = new Picture(copy(img));
+                fast.scale(size[0], size[1], mode);
+                slow.scaleInterpolated(size[0], size[1], mode);
+                max = Math.max(max, maxChannelDifference(fast, slow));
+            }
+            System.out.println(names[mode] + ": groesste Abweichung " + max
+                    + " sollte sein: hoechstens 1");
+        }
+        System.out.println("-------------------------------");
+    }
+
+    public static void testSplineBoundary() {
+        System.out.println("Teste CubicSpline am Rand");
+
+        CubicSpline spl = new CubicSpline();
+        double[] y = { 2, 0, 2, 3 };
+        spl.init(-1, 2, 3, y);
+        spl.setBoundaryConditions(9, -4);
+        System.out.println(spl.evaluate(-1) + " sollte sein: 2.0");
+        System.out.println(spl.evaluate(2) + " sollte sein: 3.0");
+        double d = 1E-6;
+        System.out.println("Steigung links "
+                + (spl.evaluate(-1 + d) - spl.evaluate(-1)) / d
+                + " sollte sein: ca. 9.0");
+        System.out.println("Steigung rechts "
+                + (spl.evaluate(2) - spl.evaluate(2 - d)) / d
+                + " sollte sein: ca. -4.0");
+        System.out.println("-------------------------------");
+    }
+
+    public static void testInterpolationChannels() {
+        System.out.println("Teste evaluateChannels gegen evaluate");
+
+        int n = 7, channels = 3;
+        double a = 0.5, b = 8.5;
+        java.util.Random random = new java.util.Random(2);
+        double[] y = new double[(n + 1) * channels];
+        for (int i = 0; i < y.length; i++)
+            y[i] = 255 * random.nextDouble();
+
+        String[] names = { "NEAREST", "LINEAR", "POLY", "CUBIC" };
+        for (int mode = Picture.NEAREST; mode <= Picture.CUBIC; mode++) {
+            MultiChannelInterpolationMethod all = interpolation(mode);
+            all.initChannels(a, b, n, y, channels);
+            double max = 0;
+            for (int c = 0; c < channels; c++) {
+                double[] yc = new double[n + 1];
+                for (int i = 0; i <= n; i++)
+                    yc[i] = y[i * channels + c];
+                MultiChannelInterpolationMethod one = interpolation(mode);
+                one.init(a, b, n, yc);
+                double[] out = new double[channels];
+                for (int k = 0; k <= 100; k++) {
+                    double z = a + (b - a) * k / 100;
+                    all.evaluateChannels(z, out, 0);
+                    max = Math.max(max, Math.abs(out[c] - one.evaluate(z)));
+                }
+            }
+            System.out.println(names[mode] + ": groesste Abweichung " + max
+                    + " sollte sein: < 1E-12");
+        }
+        System.out.println("-------------------------------");
+    }
+
+    public static void testEvaluateUniform() {
+        System.out.println("Teste evaluateUniform gegen evaluate");
+
+        // 128 Stellen pro Intervall, also mehrere RESEED-Abschnitte je Intervall
+        int n = 5, channels = 3;
+        int count = 10 * LinearInterpolation.RESEED + 1;
+        double a = -2, b = 3;
+        double step = (b - a) / (count - 1);
+        java.util.Random random = new java.util.Random(3);
+        double[] y = new double[(n + 1) * channels];
+        for (int i = 0; i < y.length; i++)
+            y[i] = 255 * random.nextDouble();
+        double[] y0 = new double[n + 1];
+        for (int i = 0; i <= n; i++)
+            y0[i] = y[i * channels];
+
+        MultiChannelInterpolationMethod[] methods = {
+                new LinearInterpolation(), new CubicSpline() };
+        for (int m = 0; m < methods.length; m++) {
+            MultiChannelInterpolationMethod method = methods[m];
+            method.init(a, b, n, y0);
+            double[] out = new double[count];
+            method.evaluateUniform(a, step, count, out);
+            double max = 0;
+            for (int k = 0; k < count; k++)
+                max = Math.max(max, Math.abs(out[k] - method.evaluate(a + k * step)));
+
+            method = m == 0 ? new LinearInterpolation() : new CubicSpline();
+            method.initChannels(a, b, n, y, channels);
+            double[][] rows = new double[count][channels];
+            method.evaluateChannelsUniform(a, step, count, rows);
+            double[] exact = new double[channels];
+            for (int k = 0; k < count; k++) {
+                method.evaluateChannels(a + k * step, exact, 0);
+                for (int c = 0; c < channels; c++)
+                    max = Math.max(max, Math.abs(rows[k][c] - exact[c]));
+            }
+            System.out.println(method.getClass().getName()
+                    + ": groesste Abweichung " + max + " sollte sein: < 1E-10");
+        }
+        System.out.println("-------------------------------");
+    }
+
+    public static void testPictureCacheShutdown() {
+        System.out.println("Teste PictureCache.shutdown mit wartenden Bildern");
+
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("cache");
+            BufferedImage img = new BufferedImage(64, 64,
+                    BufferedImage.TYPE_INT_RGB);
+            PictureCache cache = new PictureCache(1 << 20, 1);
+            List<CompletableFuture<Picture>> futures = new ArrayList<CompletableFuture<Picture>>();
+            File[] files = new File[20];
+            for (int i = 0; i < files.length; i++) {
+                files[i] = dir.resolve(i + ".png").toFile();
+                ImageIO.write(img, "png", files[i]);
+            }
+            for (File file : files)
+                futures.add(cache.get(file, 0, 0, Picture.NEAREST));
+            // ein Thread, die meisten Bilder warten noch
+            cache.shutdown();
+            int done = 0;
+            for (CompletableFuture<Picture> f : futures)
+                if (f.isDone())
+                    done++;
+            System.out.println("beendete Auftraege: " + done
+                    + " sollte sein: 20");
+        } catch (Exception e) {
+            System.out.println("Fehler: " + e);
+        } finally {
+            if (dir != null) {
+                for (File f : dir.toFile().listFiles())
+                    f.delete();
+                dir.toFile().delete();
+            }
+        }
+        System.out.println("-------------------------------");
+    }
+
+    /** Groesste Abweichung zweier gleich langer Vektoren */
+    private static double maxDifference(double[] a, double[] b) {
+        double max = 0;
+        for (int i = 0; i < a.length; i++)
+            max = Math.max(max, Math.abs(a[i] - b[i]));
+        return max;
+    }
+
+    /** Interpolationsverfahren zu einem Modus aus Picture */
+    private static MultiChannelInterpolationMethod interpolation(int mode) {
+        switch (mode) {
+        case Picture.NEAREST:
+            return new NearestNeighbour();
+        case Picture.LINEAR:
+            return new LinearInterpolation();
+        case Picture.POLY:
+            return new NewtonPolynom();
+        default:
+            return new CubicSpline();
+        }
+    }
+
+    /** Kopie eines Bildes, da Picture.scale das Bild ersetzt */
+    private static BufferedImage copy(BufferedImage img) {
+        BufferedImage c = new BufferedImage(img.getWidth(), img.getHeight(),
+                img.getType());
+        c.setData(img.getData());
+        return c;
+    }
+
+    /** Groesste Abweichung eines Farbkanals zweier gleich grosser Bilder */
+    private static int maxChannelDifference(Picture p, Picture q) {
+        int w = p.getWidth(), h = p.getHeight();
+        int[] a = p.getImage().getRGB(0, 0, w, h, null, 0, w);
+        int[] b = q.getImage().getRGB(0, 0, w, h, null, 0, w);
+        int max = 0;
+        for (int i = 0; i < a.length; i++)
+            for (int shift = 0; shift <= 16; shift += 8)
+                max = Math.max(max, Math.abs((a[i] >> shift & 0xff)
+                        - (b[i] >> shift & 0xff)));
+        return max;
+    }
 }
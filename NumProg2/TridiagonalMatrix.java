@@ -140,4 +140,42 @@ public class TridiagonalMatrix {
 
         return x;
     }
+
+    /**
+     * Loest die k Systeme Ax=b mit derselben Tridiagonalmatrix A gleichzeitig.
+     * Die rechten Seiten stehen verschraenkt in b: b[i*k + j] ist der i-te
+     * Eintrag der j-ten rechten Seite, die Loesungen werden genauso abgelegt.
+     * Die Elimination der unteren Nebendiagonale wird nur einmal
+     * durchgefuehrt und auf alle rechten Seiten angewendet.
+     */
+    public double[] solveLinearSystem(double[] b, int k) {
+
+        double[] d = Arrays.copyOf(diag, dim);
+        double[] br = Arrays.copyOf(b, dim * k);
+
+        /* Loesung x */
+        double[] x = new double[dim * k];
+
+        /* untere Nebendiagonale eliminieren */
+        for (int i = 0; i < dim - 1; i++) {
+            double factor = lower[i] / d[i];
+            d[i + 1] -= factor * upper[i];
+            for (int j = 0; j < k; j++) {
+                br[(i + 1) * k + j] -= factor * br[i * k + j];
+            }
+        }
+
+        /* Ruecksubstitution */
+        for (int j = 0; j < k; j++) {
+            x[(dim - 1) * k + j] = br[(dim - 1) * k + j] / d[dim - 1];
+        }
+        for (int i = dim - 2; i >= 0; i--) {
+            for (int j = 0; j < k; j++) {
+                x[i * k + j] = (br[i * k + j] - upper[i] * x[(i + 1) * k + j])
+                        / d[i];
+            }
+        }
+
+        return x;
+    }
 }
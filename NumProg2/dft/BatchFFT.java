@@ -0,0 +1,191 @@
+package dft;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * FFT vieler Signale gleicher Laenge n auf einmal. Die count Signale liegen
+ * zusammen in einem Array fuer den Real- und einem fuer den Imaginaerteil,
+ * wahlweise
+ * CONTIGUOUS: Signal s belegt die Eintraege s*n bis s*n+n-1,
+ * INTERLEAVED: Eintrag j des Signals s steht an der Stelle j*count + s.
+ *
+ * Alle Signale teilen sich einen FftPlan. Fuer Zweierpotenzen wird die
+ * Radix-2-FFT so umgestellt, dass die innerste Schleife ueber die Signale
+ * laeuft: Jede Butterfly wird mit derselben Einheitswurzel fuer alle Signale
+ * nacheinander ausgefuehrt, auf zusammenhaengenden Eintraegen. Diese
+ * Schleife kann der JIT-Compiler vektorisieren. Bei CONTIGUOUS werden dazu
+ * jeweils GROUP Signale in die INTERLEAVED-Anordnung umkopiert. Das Ergebnis
+ * ist fuer jedes Signal bitgleich mit FFT.
+ *
+ * Andere Laengen werden Signal fuer Signal mit dem FftPlan transformiert.
+ * Mit einem ForkJoinPool werden die Signale auf mehrere Threads verteilt.
+ */
+public class BatchFFT {
+    public final static int CONTIGUOUS = 0;
+    public final static int INTERLEAVED = 1;
+
+    /** Anzahl der Signale, die bei CONTIGUOUS gemeinsam transformiert werden */
+    final static int GROUP = 16;
+
+    /** Ab so vielen Eintraegen insgesamt wird parallel gerechnet */
+    final static int MIN_PARALLEL = 1 << 15;
+
+    private final int n, count, layout;
+
+    /** Threads, null fuer seriell */
+    private final ForkJoinPool pool;
+
+    /** count Signale der Laenge n in der Anordnung layout, seriell */
+    public BatchFFT(int n, int count, int layout) {
+        this(n, count, layout, null);
+    }
+
+    /**
+     * count Signale der Laenge n in der Anordnung layout, parallel auf pool
+     * (oder seriell fuer pool == null)
+     */
+    public BatchFFT(int n, int count, int layout, ForkJoinPool pool) {
+        if (n < 1 || count < 0)
+            throw new IllegalArgumentException("Ungueltige Groesse " + count
+                    + " x " + n);
+        if (layout != CONTIGUOUS && layout != INTERLEAVED)
+            throw new IllegalArgumentException("Unbekannte Anordnung "
+                    + layout);
+        this.n = n;
+        this.count = count;
+        this.layout = layout;
+        this.pool = pool;
+    }
+
+    /** Transformiert alle Signale in place, normiert wie FFT.fft */
+    public void fft(double[] re, double[] im) {
+        run(re, im, false);
+    }
+
+    /** Inverse Transformation aller Signale in place, nicht normiert */
+    public void ifft(double[] re, double[] im) {
+        run(re, im, true);
+    }
+
+    /** Verteilt die Signale auf die Threads */
+    private void run(double[] re, double[] im, boolean inverse) {
+        if (re.length != n * count || im.length != n * count)
+            throw new IllegalArgumentException("Erwartet werden " + count
+                    + " x " + n + " Eintraege");
+        FftPlan plan = FftPlan.get(n, inverse);
+        double divisor = inverse ? 1 : n;
+
+        int parts = 1;
+        if (pool != null && (long) n * count >= MIN_PARALLEL)
+            parts = Math.min(4 * pool.getParallelism(),
+                    (count + GROUP - 1) / GROUP);
+        if (parts <= 1) {
+            signals(plan, re, im, 0, count, divisor);
+            return;
+        }
+        int p = parts;
+        ParallelFFT.forEach(pool, p, t -> signals(plan, re, im,
+                (int) ((long) t * count / p),
+                (int) ((long) (t + 1) * count / p), divisor));
+    }
+
+    /** Transformiert die Signale s0, ..., s1-1 */
+    private void signals(FftPlan plan, double[] re, double[] im, int s0,
+            int s1, double divisor) {
+        if (!plan.isRadix2()) {
+            double[][] w = plan.scratch();
+            for (int s = s0; s < s1; s++) {
+                int start = (layout == CONTIGUOUS) ? s * n : s;
+                int stride = (layout == CONTIGUOUS) ? 1 : count;
+                for (int j = 0; j < n; j++) {
+                    w[0][j] = re[start + j * stride];
+                    w[1][j] = im[start + j * stride];
+                }
+                plan.execute(w[0], w[1]);
+                for (int j = 0; j < n; j++) {
+                    re[start + j * stride] = w[0][j] / divisor;
+                    im[start + j * stride] = w[1][j] / divisor;
+                }
+            }
+            return;
+        }
+
+        if (layout == INTERLEAVED) {
+            radix2(plan, re, im, count, s0, s1, divisor);
+            return;
+        }
+
+        double[] gRe = new double[n * GROUP];
+        double[] gIm = new double[n * GROUP];
+        for (int g = s0; g < s1; g += GROUP) {
+            int k = Math.min(GROUP, s1 - g);
+            for (int s = 0; s < k; s++) {
+                for (int j = 0; j < n; j++) {
+                    gRe[j * k + s] = re[(g + s) * n + j];
+                    gIm[j * k + s] = im[(g + s) * n + j];
+                }
+            }
+            radix2(plan, gRe, gIm, k, 0, k, divisor);
+            for (int s = 0; s < k; s++) {
+                for (int j = 0; j < n; j++) {
+                    re[(g + s) * n + j] = gRe[j * k + s];
+                    im[(g + s) * n + j] = gIm[j * k + s];
+                }
+            }
+        }
+    }
+
+    /**
+     * Radix-2-FFT der Signale s0, ..., s1-1 in der INTERLEAVED-Anordnung mit
+     * k Signalen. Rechnet wie FftPlan.butterflies(), nur mit der Schleife
+     * ueber die Signale innen.
+     */
+    private static void radix2(FftPlan plan, double[] re, double[] im, int k,
+            int s0, int s1, double divisor) {
+        int n = plan.n;
+        for (int i = 0; i < n; i++) {
+            int j = plan.bitReverse[i];
+            if (i < j) {
+                for (int s = s0; s < s1; s++) {
+                    double t = re[i * k + s];
+                    re[i * k + s] = re[j * k + s];
+                    re[j * k + s] = t;
+                    t = im[i * k + s];
+                    im[i * k + s] = im[j * k + s];
+                    im[j * k + s] = t;
+                }
+            }
+        }
+
+        double[] cos = plan.cos, sin = plan.sin;
+        for (int len = 2; len <= n; len <<= 1) {
+            int half = len >> 1;
+            int step = n / len;
+            for (int i = 0; i < n; i += len) {
+                for (int j = 0; j < half; j++) {
+                    double wr = cos[j * step];
+                    double wi = sin[j * step];
+                    int a = (i + j) * k;
+                    int b = (i + j + half) * k;
+                    for (int s = s0; s < s1; s++) {
+                        double tr = wr * re[b + s] - wi * im[b + s];
+                        double ti = wr * im[b + s] + wi * re[b + s];
+                        re[b + s] = re[a + s] - tr;
+                        im[b + s] = im[a + s] - ti;
+                        re[a + s] += tr;
+                        im[a + s] += ti;
+                    }
+                }
+            }
+        }
+
+        if (divisor != 1) {
+            for (int j = 0; j < n; j++) {
+                for (int s = s0; s < s1; s++) {
+                    re[j * k + s] /= divisor;
+                    im[j * k + s] /= divisor;
+                }
+            }
+        }
+    }
+}
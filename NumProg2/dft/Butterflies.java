@@ -0,0 +1,134 @@
+package dft;
+
+/**
+ * Rechenkern fuer die Stufen der Radix-2-FFT in FftPlan (Strategie RADIX2).
+ * Eine Stufe mit der halben Teillaenge half fasst die Eintraege a und
+ * b = a + half jeder Gruppe von 2*half Eintraegen mit der Einheitswurzel w_j
+ * zusammen: t = w_j * x_b, x_b = x_a - t, x_a = x_a + t. radix4() rechnet zwei
+ * aufeinanderfolgende Stufen half und 2*half in einem Durchgang ueber den
+ * Speicher (Radix-2^2).
+ *
+ * Die Einheitswurzeln liegen pro Stufe zusammenhaengend in wRe und wIm: w_j
+ * der Stufe half steht an der Stelle half - 1 + j. Jede Butterfly rechnet
+ * genau wie FftPlan.butterflies() (ohne Fused-Multiply-Add), so dass alle
+ * Kerne bitgleiche Ergebnisse liefern.
+ *
+ * get() verwendet dft.simd.VectorButterflies, die Variante mit der Vector-API
+ * (jdk.incubator.vector), wenn sie uebersetzt ist und das Modul beim Start
+ * mit --add-modules jdk.incubator.vector geladen wurde. Die Quelle liegt
+ * getrennt in NumProg2-simd (siehe README), damit die uebrigen Quellen ohne
+ * das Modul uebersetzt werden koennen. Sonst, oder mit -Ddft.simd=false,
+ * wird der skalare Kern dieser Klasse verwendet.
+ */
+public class Butterflies {
+    /** der von get() verwendete Kern */
+    private static final Butterflies instance = load();
+
+    /** Gibt den Kern zurueck, den FftPlan verwendet */
+    static Butterflies get() {
+        return instance;
+    }
+
+    /** Vektor-Kern, falls vorhanden, sonst der skalare */
+    private static Butterflies load() {
+        if (!Boolean.parseBoolean(System.getProperty("dft.simd", "true")))
+            return new Butterflies();
+        try {
+            Butterflies b = (Butterflies) Class
+                    .forName("dft.simd.VectorButterflies")
+                    .getDeclaredConstructor().newInstance();
+            // ein Vektor mit nur einem Eintrag bringt nichts
+            if (b.minHalf() > 1)
+                return b;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // nicht uebersetzt oder Modul nicht geladen
+        }
+        return new Butterflies();
+    }
+
+    /** Gibt den Namen des Kerns zurueck */
+    public String getName() {
+        return "scalar";
+    }
+
+    /**
+     * Kleinste halbe Teillaenge, fuer die der Kern verwendet werden soll. Die
+     * Stufen davor rechnet FftPlan mit butterflies().
+     */
+    public int minHalf() {
+        return 1;
+    }
+
+    /** Stufe half der Radix-2-FFT der Laenge n von re + i*im */
+    public void radix2(double[] re, double[] im, double[] wRe, double[] wIm,
+            int n, int half) {
+        int off = half - 1;
+        for (int i = 0; i < n; i += 2 * half) {
+            for (int j = 0; j < half; j++) {
+                double wr = wRe[off + j];
+                double wi = wIm[off + j];
+                int a = i + j;
+                int b = a + half;
+                double tr = wr * re[b] - wi * im[b];
+                double ti = wr * im[b] + wi * re[b];
+                re[b] = re[a] - tr;
+                im[b] = im[a] - ti;
+                re[a] += tr;
+                im[a] += ti;
+            }
+        }
+    }
+
+    /**
+     * Stufen half und 2*half der Radix-2-FFT der Laenge n von re + i*im in
+     * einem Durchgang: Die vier Eintraege i+j, i+j+half, i+j+2*half und
+     * i+j+3*half werden geladen, mit beiden Stufen verrechnet und
+     * zurueckgeschrieben.
+     */
+    public void radix4(double[] re, double[] im, double[] wRe, double[] wIm,
+            int n, int half) {
+        int off1 = half - 1;
+        int off2 = 2 * half - 1;
+        for (int i = 0; i < n; i += 4 * half) {
+            for (int j = 0; j < half; j++) {
+                int i0 = i + j, i1 = i0 + half, i2 = i1 + half, i3 = i2 + half;
+                double r0 = re[i0], r1 = re[i1], r2 = re[i2], r3 = re[i3];
+                double m0 = im[i0], m1 = im[i1], m2 = im[i2], m3 = im[i3];
+
+                // Stufe half: (0, 1) und (2, 3) mit w_j
+                double wr = wRe[off1 + j];
+                double wi = wIm[off1 + j];
+                double tr = wr * r1 - wi * m1;
+                double ti = wr * m1 + wi * r1;
+                r1 = r0 - tr;
+                m1 = m0 - ti;
+                r0 += tr;
+                m0 += ti;
+                tr = wr * r3 - wi * m3;
+                ti = wr * m3 + wi * r3;
+                r3 = r2 - tr;
+                m3 = m2 - ti;
+                r2 += tr;
+                m2 += ti;
+
+                // Stufe 2*half: (0, 2) mit w_j und (1, 3) mit w_{j+half}
+                wr = wRe[off2 + j];
+                wi = wIm[off2 + j];
+                tr = wr * r2 - wi * m2;
+                ti = wr * m2 + wi * r2;
+                re[i2] = r0 - tr;
+                im[i2] = m0 - ti;
+                re[i0] = r0 + tr;
+                im[i0] = m0 + ti;
+                wr = wRe[off2 + half + j];
+                wi = wIm[off2 + half + j];
+                tr = wr * r3 - wi * m3;
+                ti = wr * m3 + wi * r3;
+                re[i3] = r1 - tr;
+                im[i3] = m1 - ti;
+                re[i1] = r1 + tr;
+                im[i1] = m1 + ti;
+            }
+        }
+    }
+}
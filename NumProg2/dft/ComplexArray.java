@@ -0,0 +1,198 @@
+package dft;
+
+/**
+ * Vektor komplexer Zahlen, abgelegt in zwei double Arrays fuer Real- und
+ * Imaginaerteil. Im Gegensatz zu Complex[] braucht ein Eintrag genau 16 Bytes
+ * und es entsteht fuer keine Rechenoperation ein neues Objekt: Alle
+ * Operationen veraendern den Vektor selbst und geben ihn zurueck, so dass sie
+ * verkettet werden koennen, z.B. a.fft().mul(b).ifft().
+ *
+ * Die Arrays werden nicht kopiert, getReal() und getImaginaer() geben sie
+ * direkt zurueck. So kann ein ComplexArray ohne Umweg an FFT.fft(re, im)
+ * uebergeben werden.
+ */
+public class ComplexArray {
+    /** Realteile */
+    private final double[] re;
+    /** Imaginaerteile */
+    private final double[] im;
+
+    /** Erzeugt den Nullvektor der Laenge n */
+    public ComplexArray(int n) {
+        this(new double[n], new double[n]);
+    }
+
+    /** Erzeugt einen reellen Vektor mit einer Kopie von v */
+    public ComplexArray(double[] v) {
+        this(v.clone(), new double[v.length]);
+    }
+
+    /**
+     * Erzeugt einen Vektor mit den Realteilen re und den Imaginaerteilen im.
+     * Die Arrays werden nicht kopiert.
+     */
+    public ComplexArray(double[] re, double[] im) {
+        if (re.length != im.length)
+            throw new IllegalArgumentException(
+                    "Real- und Imaginaerteil sind unterschiedlich lang");
+        this.re = re;
+        this.im = im;
+    }
+
+    /** Kopiert c in einen neuen Vektor */
+    public static ComplexArray fromComplex(Complex[] c) {
+        ComplexArray a = new ComplexArray(c.length);
+        for (int i = 0; i < c.length; i++) {
+            a.re[i] = c[i].getReal();
+            a.im[i] = c[i].getImaginaer();
+        }
+        return a;
+    }
+
+    /** Gibt die Eintraege als Array komplexer Zahlen zurueck */
+    public Complex[] toComplex() {
+        return FFT.toComplex(re, im);
+    }
+
+    /** Gibt eine Kopie des Vektors zurueck */
+    public ComplexArray copy() {
+        return new ComplexArray(re.clone(), im.clone());
+    }
+
+    /** Gibt die Laenge des Vektors zurueck */
+    public int length() {
+        return re.length;
+    }
+
+    /** Gibt den i-ten Eintrag als komplexe Zahl zurueck */
+    public Complex get(int i) {
+        return new Complex(re[i], im[i]);
+    }
+
+    /** Setzt den i-ten Eintrag auf real + i*imaginary */
+    public void set(int i, double real, double imaginary) {
+        re[i] = real;
+        im[i] = imaginary;
+    }
+
+    /** Gibt das Array der Realteile zurueck (keine Kopie) */
+    public double[] getReal() {
+        return re;
+    }
+
+    /** Gibt das Array der Imaginaerteile zurueck (keine Kopie) */
+    public double[] getImaginaer() {
+        return im;
+    }
+
+    /**
+     * Addiert other eintragsweise
+     *
+     * @return "this += other"
+     */
+    public ComplexArray add(ComplexArray other) {
+        check(other);
+        for (int i = 0; i < re.length; i++) {
+            re[i] += other.re[i];
+            im[i] += other.im[i];
+        }
+        return this;
+    }
+
+    /**
+     * Subtrahiert other eintragsweise
+     *
+     * @return "this -= other"
+     */
+    public ComplexArray sub(ComplexArray other) {
+        check(other);
+        for (int i = 0; i < re.length; i++) {
+            re[i] -= other.re[i];
+            im[i] -= other.im[i];
+        }
+        return this;
+    }
+
+    /**
+     * Multipliziert eintragsweise mit other
+     *
+     * @return "this *= other"
+     */
+    public ComplexArray mul(ComplexArray other) {
+        check(other);
+        for (int i = 0; i < re.length; i++) {
+            double a = re[i], b = im[i];
+            double c = other.re[i], d = other.im[i];
+            re[i] = a * c - b * d;
+            im[i] = a * d + b * c;
+        }
+        return this;
+    }
+
+    /**
+     * Multipliziert eintragsweise mit dem komplex Konjugierten von other,
+     * z.B. fuer die Kreuzkorrelation im Frequenzbereich
+     *
+     * @return "this *= conj(other)"
+     */
+    public ComplexArray conjugateMul(ComplexArray other) {
+        check(other);
+        for (int i = 0; i < re.length; i++) {
+            double a = re[i], b = im[i];
+            double c = other.re[i], d = -other.im[i];
+            re[i] = a * c - b * d;
+            im[i] = a * d + b * c;
+        }
+        return this;
+    }
+
+    /**
+     * Multipliziert alle Eintraege mit der reellen Zahl s
+     *
+     * @return "this *= s"
+     */
+    public ComplexArray scale(double s) {
+        for (int i = 0; i < re.length; i++) {
+            re[i] *= s;
+            im[i] *= s;
+        }
+        return this;
+    }
+
+    /** Ersetzt alle Eintraege durch ihr komplex Konjugiertes */
+    public ComplexArray conjugate() {
+        for (int i = 0; i < im.length; i++)
+            im[i] = -im[i];
+        return this;
+    }
+
+    /** Gibt die Betraege der Eintraege zurueck */
+    public double[] magnitude() {
+        return magnitude(new double[re.length]);
+    }
+
+    /** Schreibt die Betraege der Eintraege nach out und gibt out zurueck */
+    public double[] magnitude(double[] out) {
+        for (int i = 0; i < re.length; i++)
+            out[i] = Math.sqrt(re[i] * re[i] + im[i] * im[i]);
+        return out;
+    }
+
+    /** FFT in place, normiert wie FFT.fft (Division durch n) */
+    public ComplexArray fft() {
+        FFT.fft(re, im);
+        return this;
+    }
+
+    /** Inverse FFT in place, nicht normiert wie FFT.ifft */
+    public ComplexArray ifft() {
+        FFT.ifft(re, im);
+        return this;
+    }
+
+    private void check(ComplexArray other) {
+        if (other.re.length != re.length)
+            throw new IllegalArgumentException("Die Laengen " + re.length
+                    + " und " + other.re.length + " sind unterschiedlich");
+    }
+}
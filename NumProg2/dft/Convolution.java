@@ -0,0 +1,87 @@
+package dft;
+
+/**
+ * Faltung und Kreuzkorrelation reeller Vektoren. Je nach Groesse wird
+ * direkt oder mit der FFT gerechnet:
+ * Ist der kuerzere Vektor hoechstens DIRECT_LIMIT lang, direkt in O(n*m).
+ * Sind beide aehnlich lang, mit einer FFT der Laenge >= n+m-1.
+ * Ist einer viel laenger als der andere, blockweise mit FIRFilter
+ * (Overlap-Save), so dass die FFT-Laenge nur vom kurzen Vektor abhaengt.
+ * Die Plaene der FFT werden von FftPlan zwischengespeichert.
+ */
+public class Convolution {
+    /** Bis zu dieser Laenge des kuerzeren Vektors wird direkt gerechnet */
+    final static int DIRECT_LIMIT = 32;
+
+    /** Ab diesem Laengenverhaeltnis wird blockweise gerechnet */
+    final static int BLOCK_RATIO = 16;
+
+    /**
+     * Faltung (x*h)_j = sum_i x_i h_{j-i} der Laenge x.length+h.length-1
+     */
+    public static double[] convolve(double[] x, double[] h) {
+        if (x.length == 0 || h.length == 0)
+            return new double[0];
+        double[] a = x, b = h;
+        if (a.length < b.length) {
+            a = h;
+            b = x;
+        }
+        if (b.length <= DIRECT_LIMIT)
+            return direct(a, b);
+        if (a.length > BLOCK_RATIO * b.length)
+            return new FIRFilter(b).filter(a);
+        return fft(a, b);
+    }
+
+    /**
+     * Kreuzkorrelation r_j = sum_i x_{i+j-(m-1)} y_i mit m = y.length, der
+     * Laenge x.length+m-1. Der Eintrag r_j gehoert also zur Verschiebung
+     * j-(m-1) von y gegenueber x.
+     */
+    public static double[] correlate(double[] x, double[] y) {
+        double[] r = new double[y.length];
+        for (int i = 0; i < y.length; i++)
+            r[i] = y[y.length - 1 - i];
+        return convolve(x, r);
+    }
+
+    /** Direkte Faltung in O(n*m) */
+    static double[] direct(double[] x, double[] h) {
+        double[] y = new double[x.length + h.length - 1];
+        for (int i = 0; i < x.length; i++) {
+            double xi = x[i];
+            for (int k = 0; k < h.length; k++)
+                y[i + k] += xi * h[k];
+        }
+        return y;
+    }
+
+    /** Faltung mit einer einzigen RealFFT der Laenge >= n+m-1 */
+    static double[] fft(double[] x, double[] h) {
+        int n = x.length + h.length - 1;
+        int l = FFT.isPowerOfTwo(n) ? n : Integer.highestOneBit(n) << 1;
+        double[] a = new double[l];
+        double[] b = new double[l];
+        System.arraycopy(x, 0, a, 0, x.length);
+        System.arraycopy(h, 0, b, 0, h.length);
+
+        int bins = l / 2 + 1;
+        double[] aRe = new double[bins], aIm = new double[bins];
+        double[] bRe = new double[bins], bIm = new double[bins];
+        RealFFT.fft(a, aRe, aIm);
+        RealFFT.fft(b, bRe, bIm);
+        // beide Hintransformationen teilen durch l, die Ruecktransformation
+        // nicht: einmal mit l multiplizieren
+        for (int k = 0; k < bins; k++) {
+            double r = aRe[k] * bRe[k] - aIm[k] * bIm[k];
+            aIm[k] = (aRe[k] * bIm[k] + aIm[k] * bRe[k]) * l;
+            aRe[k] = r * l;
+        }
+        RealFFT.ifft(aRe, aIm, a);
+
+        double[] y = new double[n];
+        System.arraycopy(a, 0, y, 0, n);
+        return y;
+    }
+}
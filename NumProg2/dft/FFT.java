@@ -0,0 +1,101 @@
+package dft;
+
+import java.util.Arrays;
+
+/**
+ * Schnelle Fourier-Transformation auf getrennten Arrays fuer Real- und
+ * Imaginaerteil, fuer beliebige Laengen n. Gerechnet wird mit einem FftPlan,
+ * der pro Laenge und Richtung nur einmal erzeugt wird: Zweierpotenzen
+ * iterativ in place, Laengen mit kleinen Primfaktoren (z.B. 1000 oder 44100)
+ * mit Mixed-Radix, alle uebrigen mit dem Verfahren von Bluestein.
+ *
+ * Die Normierung entspricht DFT.dft bzw. IFFT.ifft: Die Hintransformation
+ * teilt durch n, die Ruecktransformation nicht.
+ */
+public class FFT {
+    /**
+     * Schnelle Fourier-Transformation (FFT) des reellen Vektors v. Das
+     * Ergebnis entspricht DFT.dft(v), also inklusive der Division durch n.
+     */
+    public static Complex[] fft(double[] v) {
+        int n = v.length;
+        if (n == 0)
+            return new Complex[0];
+        double[][] work = FftPlan.get(n, false).scratch();
+        double[] re = work[0];
+        double[] im = work[1];
+        System.arraycopy(v, 0, re, 0, n);
+        Arrays.fill(im, 0);
+        fft(re, im);
+        return toComplex(re, im);
+    }
+
+    /**
+     * Schnelle Fourier-Transformation (FFT) des komplexen Vektors c, normiert
+     * wie DFT.dft (Division durch n).
+     */
+    public static Complex[] fft(Complex[] c) {
+        int n = c.length;
+        if (n == 0)
+            return new Complex[0];
+        double[][] work = FftPlan.get(n, false).scratch();
+        double[] re = work[0];
+        double[] im = work[1];
+        for (int i = 0; i < n; i++) {
+            re[i] = c[i].getReal();
+            im[i] = c[i].getImaginaer();
+        }
+        fft(re, im);
+        return toComplex(re, im);
+    }
+
+    /**
+     * Schnelle Fourier-Transformation (FFT) des Vektors re + i*im, das
+     * Ergebnis steht danach in re und im.
+     */
+    public static void fft(double[] re, double[] im) {
+        transform(re, im, false);
+        int n = re.length;
+        for (int i = 0; i < n; i++) {
+            re[i] /= n;
+            im[i] /= n;
+        }
+    }
+
+    /**
+     * Schnelle inverse Fourier-Transformation (IFFT) des Vektors re + i*im,
+     * das Ergebnis steht danach in re und im.
+     */
+    public static void ifft(double[] re, double[] im) {
+        transform(re, im, true);
+    }
+
+    /** Fasst Real- und Imaginaerteil zu einem Array komplexer Zahlen zusammen */
+    static Complex[] toComplex(double[] re, double[] im) {
+        Complex[] c = new Complex[re.length];
+        for (int i = 0; i < c.length; i++)
+            c[i] = new Complex(re[i], im[i]);
+        return c;
+    }
+
+    /**
+     * Gibt an, ob n eine Zweierpotenz ist
+     */
+    public static boolean isPowerOfTwo(int n) {
+        return n > 0 && (n & (n - 1)) == 0;
+    }
+
+    /**
+     * Nicht normierte Transformation in place. Fuer inverse == false wird mit
+     * exp(-2*pi*i/n) transformiert, sonst mit exp(2*pi*i/n). Leere Vektoren
+     * bleiben wie bei DFT.dft leer.
+     */
+    static void transform(double[] re, double[] im, boolean inverse) {
+        if (im.length != re.length)
+            throw new IllegalArgumentException(
+                    "Real- und Imaginaerteil sind unterschiedlich lang");
+        if (re.length == 0)
+            return;
+        FftPlan.get(re.length, inverse).execute(re, im);
+    }
+}
@@ -0,0 +1,171 @@
+package dft;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Zweidimensionale FFT fuer Bilder mit width x height Eintraegen, die Zeile
+ * fuer Zeile in einem Array liegen (ein Array pro Farbkanal). Transformiert
+ * werden zuerst alle Zeilen, dann alle Spalten. Damit auch die Spalten
+ * zusammenhaengend im Speicher liegen, wird dazwischen transponiert, und
+ * zwar in Kacheln von TILE x TILE Eintraegen, die in den Cache passen.
+ * Zeilen und Kacheln werden parallel auf einem ForkJoinPool bearbeitet.
+ *
+ * Die Normierung entspricht FFT: fft() teilt durch width*height, ifft()
+ * nicht.
+ */
+public class FFT2D {
+    /** Kantenlaenge der Kacheln beim Transponieren */
+    final static int TILE = 32;
+
+    private final int width, height;
+    private final ForkJoinPool pool;
+
+    /** 2D-FFT fuer width x height auf dem gemeinsamen ForkJoinPool */
+    public FFT2D(int width, int height) {
+        this(width, height, ForkJoinPool.commonPool());
+    }
+
+    /** 2D-FFT fuer width x height auf dem Pool pool */
+    public FFT2D(int width, int height, ForkJoinPool pool) {
+        if (width < 1 || height < 1)
+            throw new IllegalArgumentException("Ungueltige Groesse " + width
+                    + " x " + height);
+        this.width = width;
+        this.height = height;
+        this.pool = pool;
+    }
+
+    /**
+     * Transformiert re + i*im in place, normiert (Division durch
+     * width*height). Der Eintrag (kx, ky) steht danach an der Stelle
+     * ky*width + kx.
+     */
+    public void fft(double[] re, double[] im) {
+        transform(re, im, false);
+        double n = (double) width * height;
+        ParallelFFT.forEach(pool, height, y -> {
+            for (int i = y * width; i < (y + 1) * width; i++) {
+                re[i] /= n;
+                im[i] /= n;
+            }
+        });
+    }
+
+    /** Inverse Transformation von re + i*im in place, nicht normiert */
+    public void ifft(double[] re, double[] im) {
+        transform(re, im, true);
+    }
+
+    /**
+     * Filtert die reellen Kanaele planes (jeweils width*height Eintraege) in
+     * place mit mask: transformieren, mit dem geraden Teil von mask
+     * gewichten, zuruecktransformieren. Das entspricht einer zyklischen
+     * Faltung, das Bild wird also am Rand periodisch fortgesetzt.
+     *
+     * Je zwei Kanaele werden als Real- und Imaginaerteil gemeinsam
+     * transformiert. Weil die Gewichtung gerade und reell ist, bleiben sie
+     * dabei getrennt.
+     */
+    public void filter(double[][] planes, SpectralMask mask) {
+        double[] weights = weights(mask);
+        for (int p = 0; p < planes.length; p += 2) {
+            double[] im = (p + 1 < planes.length) ? planes[p + 1]
+                    : new double[width * height];
+            filter(planes[p], im, weights);
+        }
+    }
+
+    /**
+     * Gerader Teil von mask, geteilt durch width*height, in der transponierten
+     * Anordnung kx*height + ky
+     */
+    private double[] weights(SpectralMask mask) {
+        double[] w = new double[width * height];
+        double n = (double) width * height;
+        ParallelFFT.forEach(pool, width, kx -> {
+            int fx = (kx <= width / 2) ? kx : kx - width;
+            for (int ky = 0; ky < height; ky++) {
+                int fy = (ky <= height / 2) ? ky : ky - height;
+                double a = mask.weight(fx, fy, width, height);
+                double b = mask.weight(-fx, -fy, width, height);
+                w[kx * height + ky] = (a + b) / (2 * n);
+            }
+        });
+        return w;
+    }
+
+    /**
+     * Filtert re + i*im mit den Gewichten weights. Zwischen den beiden
+     * Spaltentransformationen bleiben die Daten transponiert, so dass nur
+     * zweimal transponiert wird.
+     */
+    private void filter(double[] re, double[] im, double[] weights) {
+        double[] tRe = new double[width * height];
+        double[] tIm = new double[width * height];
+
+        rows(re, im, width, height, false);
+        transpose(re, tRe, width, height);
+        transpose(im, tIm, width, height);
+        rows(tRe, tIm, height, width, false);
+
+        ParallelFFT.forEach(pool, width, kx -> {
+            for (int i = kx * height; i < (kx + 1) * height; i++) {
+                tRe[i] *= weights[i];
+                tIm[i] *= weights[i];
+            }
+        });
+
+        rows(tRe, tIm, height, width, true);
+        transpose(tRe, re, height, width);
+        transpose(tIm, im, height, width);
+        rows(re, im, width, height, true);
+    }
+
+    /** Nicht normierte Transformation: Zeilen, transponieren, Zeilen, zurueck */
+    private void transform(double[] re, double[] im, boolean inverse) {
+        if (re.length != width * height || im.length != width * height)
+            throw new IllegalArgumentException("Erwartet werden " + width
+                    + " x " + height + " Eintraege");
+        double[] tRe = new double[width * height];
+        double[] tIm = new double[width * height];
+
+        rows(re, im, width, height, inverse);
+        transpose(re, tRe, width, height);
+        transpose(im, tIm, width, height);
+        rows(tRe, tIm, height, width, inverse);
+        transpose(tRe, re, height, width);
+        transpose(tIm, im, height, width);
+    }
+
+    /** Transformiert die rows Zeilen der Laenge n von re + i*im parallel */
+    private void rows(double[] re, double[] im, int n, int rows,
+            boolean inverse) {
+        FftPlan plan = FftPlan.get(n, inverse);
+        ParallelFFT.forEach(pool, rows, y -> {
+            double[][] s = plan.scratch();
+            System.arraycopy(re, y * n, s[0], 0, n);
+            System.arraycopy(im, y * n, s[1], 0, n);
+            plan.execute(s[0], s[1]);
+            System.arraycopy(s[0], 0, re, y * n, n);
+            System.arraycopy(s[1], 0, im, y * n, n);
+        });
+    }
+
+    /**
+     * Schreibt die Transponierte der Matrix src mit rows Zeilen der Laenge
+     * cols nach dst, kachelweise und parallel ueber die Kachelzeilen
+     */
+    private void transpose(double[] src, double[] dst, int cols, int rows) {
+        int tiles = (rows + TILE - 1) / TILE;
+        ParallelFFT.forEach(pool, tiles, t -> {
+            int y0 = t * TILE;
+            int y1 = Math.min(rows, y0 + TILE);
+            for (int x0 = 0; x0 < cols; x0 += TILE) {
+                int x1 = Math.min(cols, x0 + TILE);
+                for (int y = y0; y < y1; y++)
+                    for (int x = x0; x < x1; x++)
+                        dst[x * rows + y] = src[y * cols + x];
+            }
+        });
+    }
+}
@@ -0,0 +1,197 @@
+package dft;
+
+import java.util.Arrays;
+
+/**
+ * FIR-Filter y_t = sum_k h_k x_{t-k} fuer lange oder fortlaufende Signale,
+ * blockweise mit der FFT berechnet. Die Abtastwerte werden in beliebig
+ * grossen Stuecken mit process() uebergeben, zurueck kommen alle
+ * Ausgabewerte, die damit fertig geworden sind. flush() liefert am Ende den
+ * Rest einschliesslich des Nachlaufs der Laenge m-1. Insgesamt ergibt sich
+ * genau die Faltung von x mit h der Laenge n+m-1.
+ *
+ * Die FFT-Laenge L ist eine Zweierpotenz mit L >= 4m, pro Block werden
+ * B = L-m+1 Werte ausgegeben. Das Spektrum von h wird nur einmal berechnet.
+ * Zwei Verfahren stehen zur Wahl:
+ * OVERLAP_SAVE: jeder Block enthaelt zusaetzlich die letzten m-1
+ * Eingabewerte, verworfen werden die m-1 zyklisch verfaelschten Werte.
+ * OVERLAP_ADD: jeder Block wird mit Nullen aufgefuellt, die ueberstehenden
+ * m-1 Werte werden zum naechsten Block addiert.
+ * Beide liefern bis auf Rundungsfehler dasselbe Ergebnis.
+ */
+public class FIRFilter {
+    public final static int OVERLAP_ADD = 0;
+    public final static int OVERLAP_SAVE = 1;
+
+    /** Kleinste FFT-Laenge */
+    final static int MIN_FFT = 64;
+
+    private final int method;
+
+    /** Laenge des Filters, FFT-Laenge und Blocklaenge */
+    private final int m, fftLength, blockLength;
+
+    /** Spektrum von h, mit L multipliziert (gleicht die Normierung aus) */
+    private final double[] hRe, hIm;
+
+    /**
+     * OVERLAP_SAVE: letzte m-1 Werte des vorigen Blocks und die neuen Werte.
+     * OVERLAP_ADD: nur die neuen Werte.
+     */
+    private final double[] input;
+    private int filled;
+
+    /** OVERLAP_ADD: Nachlauf der bisherigen Bloecke */
+    private final double[] tail;
+
+    /** Arbeitsspeicher */
+    private final double[] frame, re, im;
+
+    /** Anzahl der bisher ein- und ausgegebenen Werte */
+    private long received = 0, emitted = 0;
+
+    /** Erzeugt ein Filter mit den Koeffizienten h und OVERLAP_SAVE */
+    public FIRFilter(double[] h) {
+        this(h, OVERLAP_SAVE);
+    }
+
+    /** Erzeugt ein Filter mit den Koeffizienten h und dem Verfahren method */
+    public FIRFilter(double[] h, int method) {
+        if (h.length == 0)
+            throw new IllegalArgumentException("Das Filter ist leer");
+        if (method != OVERLAP_ADD && method != OVERLAP_SAVE)
+            throw new IllegalArgumentException("Unbekanntes Verfahren "
+                    + method);
+        this.method = method;
+        m = h.length;
+        int l = Integer.highestOneBit(4 * m - 1) << 1;
+        fftLength = Math.max(MIN_FFT, l);
+        blockLength = fftLength - m + 1;
+
+        frame = new double[fftLength];
+        re = new double[fftLength / 2 + 1];
+        im = new double[fftLength / 2 + 1];
+        hRe = new double[fftLength / 2 + 1];
+        hIm = new double[fftLength / 2 + 1];
+        System.arraycopy(h, 0, frame, 0, m);
+        RealFFT.fft(frame, hRe, hIm);
+        for (int k = 0; k < hRe.length; k++) {
+            hRe[k] *= fftLength;
+            hIm[k] *= fftLength;
+        }
+
+        if (method == OVERLAP_SAVE) {
+            input = new double[fftLength];
+            tail = null;
+        } else {
+            input = new double[blockLength];
+            tail = new double[m - 1];
+        }
+        reset();
+    }
+
+    /** Gibt die Laenge eines Blocks zurueck, also die maximale Verzoegerung */
+    public int getBlockLength() {
+        return blockLength;
+    }
+
+    /** Verwirft alle bisherigen Werte */
+    public void reset() {
+        Arrays.fill(input, 0);
+        if (tail != null)
+            Arrays.fill(tail, 0);
+        filled = (method == OVERLAP_SAVE) ? m - 1 : 0;
+        received = 0;
+        emitted = 0;
+    }
+
+    /** Filtert x vollstaendig, das Ergebnis hat die Laenge x.length+m-1 */
+    public double[] filter(double[] x) {
+        reset();
+        double[] a = process(x, 0, x.length);
+        double[] b = flush();
+        double[] y = new double[a.length + b.length];
+        System.arraycopy(a, 0, y, 0, a.length);
+        System.arraycopy(b, 0, y, a.length, b.length);
+        return y;
+    }
+
+    /** Uebergibt die Werte x und gibt die fertigen Ausgabewerte zurueck */
+    public double[] process(double[] x) {
+        return process(x, 0, x.length);
+    }
+
+    /**
+     * Uebergibt die Werte x[offset], ..., x[offset+length-1] und gibt die
+     * damit fertigen Ausgabewerte zurueck (ein Vielfaches von B, evtl. keiner)
+     */
+    public double[] process(double[] x, int offset, int length) {
+        int start = (method == OVERLAP_SAVE) ? m - 1 : 0;
+        int blocks = (filled - start + length) / blockLength;
+        double[] y = new double[blocks * blockLength];
+        int out = 0;
+        int capacity = input.length;
+        for (int i = offset; i < offset + length;) {
+            int count = Math.min(capacity - filled, offset + length - i);
+            System.arraycopy(x, i, input, filled, count);
+            filled += count;
+            i += count;
+            if (filled == capacity) {
+                block(y, out);
+                out += blockLength;
+            }
+        }
+        received += length;
+        emitted += y.length;
+        return y;
+    }
+
+    /**
+     * Gibt die restlichen Ausgabewerte zurueck, so dass insgesamt n+m-1 Werte
+     * ausgegeben wurden, und setzt das Filter zurueck
+     */
+    public double[] flush() {
+        int rest = (int) (received + m - 1 - emitted);
+        double[] y = new double[rest];
+        double[] zeros = new double[input.length];
+        int out = 0;
+        while (out < rest) {
+            double[] b = process(zeros, 0, input.length - filled);
+            int count = Math.min(b.length, rest - out);
+            System.arraycopy(b, 0, y, out, count);
+            out += count;
+        }
+        reset();
+        return y;
+    }
+
+    /** Verarbeitet einen vollen Block und schreibt B Werte nach y[out] */
+    private void block(double[] y, int out) {
+        if (method == OVERLAP_SAVE) {
+            System.arraycopy(input, 0, frame, 0, fftLength);
+        } else {
+            System.arraycopy(input, 0, frame, 0, blockLength);
+            Arrays.fill(frame, blockLength, fftLength, 0);
+        }
+
+        RealFFT.fft(frame, re, im);
+        for (int k = 0; k < re.length; k++) {
+            double r = re[k] * hRe[k] - im[k] * hIm[k];
+            im[k] = re[k] * hIm[k] + im[k] * hRe[k];
+            re[k] = r;
+        }
+        RealFFT.ifft(re, im, frame);
+
+        if (method == OVERLAP_SAVE) {
+            System.arraycopy(frame, m - 1, y, out, blockLength);
+            System.arraycopy(input, blockLength, input, 0, m - 1);
+            filled = m - 1;
+        } else {
+            for (int i = 0; i < m - 1; i++)
+                frame[i] += tail[i];
+            System.arraycopy(frame, 0, y, out, blockLength);
+            System.arraycopy(frame, blockLength, tail, 0, m - 1);
+            filled = 0;
+        }
+    }
+}
@@ -0,0 +1,663 @@
+package dft;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ein FftPlan enthaelt alles, was fuer Transformationen einer festen Laenge n
+ * und Richtung nur einmal berechnet werden muss: die Einheitswurzeln, die
+ * Bit-Umkehr-Permutation bzw. die Zerlegung von n in Faktoren. Dazu kommen
+ * Arbeitsspeicher, die jeder Thread einmal anlegt und danach wiederverwendet.
+ *
+ * Je nach n wird eines von drei Verfahren gewaehlt:
+ * RADIX2 fuer Zweierpotenzen (iterativ mit Bit-Umkehr, je zwei Stufen auf
+ * einmal mit dem Kern aus Butterflies, als RADIX2_BLOCKED mit den ersten
+ * Stufen blockweise im Cache),
+ * MIXED_RADIX, wenn n nur Primfaktoren bis MAX_RADIX hat (rekursiv mit
+ * eigenen Butterflies fuer 2, 3, 4 und 5 und einer allgemeinen fuer die
+ * uebrigen Faktoren),
+ * BLUESTEIN sonst (Chirp-z: die Transformation wird als Faltung geschrieben
+ * und mit einer FFT der Zweierpotenz-Laenge m >= 2n-1 berechnet).
+ * Alle drei sind O(n log n), bei BLUESTEIN mit einem groesseren Faktor.
+ * Welches Verfahren get() verwendet, entscheidet FftPlanner: nach der dort
+ * gespeicherten Messung, sonst nach defaultStrategy().
+ *
+ * Ein Plan wird nach dem Erzeugen nicht mehr veraendert und kann daher von
+ * mehreren Threads gleichzeitig benutzt werden. Mit get() erhaelt man die
+ * Plaene aus einem Zwischenspeicher, der nach Laenge und Richtung sortiert
+ * ist.
+ */
+public class FftPlan {
+    final static int RADIX2 = 0;
+    final static int MIXED_RADIX = 1;
+    final static int BLUESTEIN = 2;
+    final static int RADIX2_BLOCKED = 3;
+
+    /** Namen der Verfahren, z.B. fuer FftPlanner */
+    final static String[] STRATEGY_NAMES = { "radix2", "mixed-radix",
+            "bluestein", "radix2-blocked" };
+
+    /**
+     * RADIX2_BLOCKED: Anzahl der Eintraege eines Blocks, in dem die ersten
+     * Stufen am Stueck gerechnet werden (64 KB)
+     */
+    final static int BLOCK = 1 << 12;
+
+    /**
+     * Groesster Primfaktor, der noch mit MIXED_RADIX zerlegt wird. Die
+     * allgemeine Butterfly kostet O(p^2), darueber ist BLUESTEIN schneller.
+     */
+    final static int MAX_RADIX = 13;
+
+    /** bereits erzeugte Plaene, Schluessel siehe key() */
+    private static final ConcurrentHashMap<Long, FftPlan> cache = new ConcurrentHashMap<Long, FftPlan>();
+
+    /** Arbeitsspeicher eines Threads */
+    private static class Work {
+        /** fuer die Aufrufer, siehe scratch() */
+        double[][] user;
+        /** Kopie der Eingabe bei MIXED_RADIX, Faltung bei BLUESTEIN */
+        double[] re, im;
+        /** Werte einer allgemeinen Butterfly */
+        double[] pRe, pIm;
+    }
+
+    /** Laenge der Transformation */
+    final int n;
+
+    /** Richtung: false mit exp(-2*pi*i/n), true mit exp(2*pi*i/n) */
+    final boolean inverse;
+
+    /** RADIX2, RADIX2_BLOCKED, MIXED_RADIX oder BLUESTEIN */
+    final int strategy;
+
+    /**
+     * Einheitswurzeln w^k: bei RADIX2 fuer k < n/2, bei MIXED_RADIX fuer
+     * k < n. Bei BLUESTEIN steht hier der Chirp exp(-+pi*i*k^2/n), k < n.
+     */
+    final double[] cos, sin;
+
+    /** RADIX2(_BLOCKED): Bit-Umkehr-Permutation der Indizes 0 bis n-1 */
+    final int[] bitReverse;
+
+    /**
+     * RADIX2: die Einheitswurzeln jeder Stufe zusammenhaengend fuer
+     * Butterflies, w_j der Stufe half an der Stelle half - 1 + j
+     */
+    final double[] stageCos, stageSin;
+
+    /**
+     * MIXED_RADIX: Faktor radix[s] der Stufe s und das Produkt rest[s] der
+     * Faktoren aller folgenden Stufen
+     */
+    final int[] radix, rest;
+
+    /** BLUESTEIN: die Plaene der Laenge m und die Transformierte des Chirps */
+    final FftPlan forward, backward;
+    final double[] chirpRe, chirpIm;
+
+    private final ThreadLocal<Work> work;
+
+    /**
+     * Gibt den Plan fuer die Laenge n und die Richtung inverse zurueck. Er
+     * wird beim ersten Aufruf erzeugt und danach wiederverwendet.
+     */
+    public static FftPlan get(int n, boolean inverse) {
+        // kein computeIfAbsent: BLUESTEIN holt im Konstruktor selbst Plaene
+        Long key = key(n, inverse);
+        FftPlan plan = cache.get(key);
+        if (plan == null) {
+            plan = new FftPlan(n, inverse, FftPlanner.strategy(n, inverse));
+            FftPlan old = cache.putIfAbsent(key, plan);
+            if (old != null)
+                plan = old;
+        }
+        return plan;
+    }
+
+    /**
+     * Legt plan im Zwischenspeicher ab, so dass get() ihn fuer seine Laenge
+     * und Richtung zurueckgibt
+     */
+    static void install(FftPlan plan) {
+        cache.put(key(plan.n, plan.inverse), plan);
+    }
+
+    /** Leert den Zwischenspeicher der Plaene */
+    public static void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Erzeugt einen Plan fuer die Laenge n > 0 mit dem passenden Verfahren.
+     * Normalerweise sollte get() verwendet werden.
+     */
+    public FftPlan(int n, boolean inverse) {
+        this(n, inverse, defaultStrategy(n));
+    }
+
+    /**
+     * Erzeugt einen Plan fuer die Laenge n > 0 mit dem Verfahren strategy.
+     * RADIX2 und RADIX2_BLOCKED gehen nur fuer Zweierpotenzen, MIXED_RADIX
+     * fuer jedes n, BLUESTEIN fuer n > 1.
+     */
+    FftPlan(int n, boolean inverse, int strategy) {
+        if (n < 1)
+            throw new IllegalArgumentException("Die Laenge " + n
+                    + " ist nicht positiv");
+        if (strategy < RADIX2 || strategy > RADIX2_BLOCKED)
+            throw new IllegalArgumentException("Unbekanntes Verfahren "
+                    + strategy);
+        this.strategy = strategy;
+        if (isRadix2() && !FFT.isPowerOfTwo(n))
+            throw new IllegalArgumentException("Die Laenge " + n
+                    + " ist keine Zweierpotenz");
+        // der Teilplan der Laenge 1 waere wieder dieser Plan
+        if (strategy == BLUESTEIN && n == 1)
+            throw new IllegalArgumentException(
+                    "BLUESTEIN braucht eine Laenge groesser 1");
+        this.n = n;
+        this.inverse = inverse;
+
+        double sign = inverse ? 1 : -1;
+        int[] r = null, s = null;
+        FftPlan f = null, g = null;
+        double[] cr = null, ci = null;
+        double[] sc = null, ss = null;
+        int[] rev = null;
+
+        if (isRadix2()) {
+            cos = new double[n / 2];
+            sin = new double[n / 2];
+            for (int k = 0; k < n / 2; k++) {
+                double phi = 2 * Math.PI * k / n;
+                cos[k] = Math.cos(phi);
+                sin[k] = sign * Math.sin(phi);
+            }
+            rev = new int[n];
+            int bits = Integer.numberOfTrailingZeros(n);
+            for (int i = 0; i < n; i++)
+                rev[i] = (bits == 0) ? 0 : Integer.reverse(i) >>> (32 - bits);
+            if (strategy == RADIX2) {
+                sc = new double[Math.max(n - 1, 0)];
+                ss = new double[sc.length];
+                for (int half = 1; half < n; half <<= 1) {
+                    int step = n / (2 * half);
+                    for (int j = 0; j < half; j++) {
+                        sc[half - 1 + j] = cos[j * step];
+                        ss[half - 1 + j] = sin[j * step];
+                    }
+                }
+            }
+        } else if (strategy == MIXED_RADIX) {
+            cos = new double[n];
+            sin = new double[n];
+            for (int k = 0; k < n; k++) {
+                double phi = 2 * Math.PI * k / n;
+                cos[k] = Math.cos(phi);
+                sin[k] = sign * Math.sin(phi);
+            }
+            int[] factors = factorize(n);
+            r = factors;
+            s = new int[factors.length];
+            int m = n;
+            for (int i = 0; i < factors.length; i++) {
+                m /= factors[i];
+                s[i] = m;
+            }
+        } else {
+            // w_k = exp(-+pi*i*k^2/n), k^2 modulo 2n um Rundungsfehler zu
+            // vermeiden
+            cos = new double[n];
+            sin = new double[n];
+            long twoN = 2L * n;
+            for (int k = 0; k < n; k++) {
+                double phi = Math.PI * (((long) k * k) % twoN) / n;
+                cos[k] = Math.cos(phi);
+                sin[k] = sign * Math.sin(phi);
+            }
+            int m = Integer.highestOneBit(2 * n - 1);
+            if (m < 2 * n - 1)
+                m <<= 1;
+            f = get(m, false);
+            g = get(m, true);
+            cr = new double[m];
+            ci = new double[m];
+            cr[0] = cos[0];
+            ci[0] = -sin[0];
+            for (int k = 1; k < n; k++) {
+                cr[k] = cr[m - k] = cos[k];
+                ci[k] = ci[m - k] = -sin[k];
+            }
+            f.execute(cr, ci);
+        }
+        bitReverse = rev;
+        stageCos = sc;
+        stageSin = ss;
+        radix = r;
+        rest = s;
+        forward = f;
+        backward = g;
+        chirpRe = cr;
+        chirpIm = ci;
+
+        work = ThreadLocal.withInitial(() -> new Work());
+    }
+
+    /** Gibt die Laenge der Transformation zurueck */
+    public int size() {
+        return n;
+    }
+
+    /** Gibt den Namen des Verfahrens zurueck */
+    public String getStrategyName() {
+        return STRATEGY_NAMES[strategy];
+    }
+
+    /** Gibt an, ob der Plan mit Bit-Umkehr und Radix-2-Butterflies rechnet */
+    boolean isRadix2() {
+        return strategy == RADIX2 || strategy == RADIX2_BLOCKED;
+    }
+
+    /** Gibt an, ob es sich um die Ruecktransformation handelt */
+    public boolean isInverse() {
+        return inverse;
+    }
+
+    /**
+     * Transformiert re + i*im in place, ohne zu normieren. Nach dem ersten
+     * Aufruf pro Thread wird kein Speicher mehr angelegt.
+     */
+    public void execute(double[] re, double[] im) {
+        if (re.length != n || im.length != n)
+            throw new IllegalArgumentException("Der Plan ist fuer die Laenge "
+                    + n + ", nicht " + re.length);
+
+        if (strategy == RADIX2)
+            radix2(re, im);
+        else if (strategy == RADIX2_BLOCKED)
+            radix2Blocked(re, im);
+        else if (strategy == MIXED_RADIX)
+            mixedRadix(re, im);
+        else
+            bluestein(re, im);
+    }
+
+    /**
+     * Gibt den Arbeitsspeicher {re, im} der Laenge n des aufrufenden Threads
+     * zurueck. Der Inhalt ist beliebig. execute() benutzt ihn nicht, die
+     * Eingabe darf also dort stehen.
+     */
+    double[][] scratch() {
+        Work w = work.get();
+        if (w.user == null)
+            w.user = new double[2][n];
+        return w.user;
+    }
+
+    /**
+     * Iterative Radix-2-FFT mit Bit-Umkehr. Die Stufen ab Butterflies.minHalf()
+     * rechnet der Kern aus Butterflies.get(), je zwei auf einmal.
+     */
+    private void radix2(double[] re, double[] im) {
+        bitReverse(re, im, 0, n);
+        Butterflies kernel = Butterflies.get();
+        int half = 1;
+        for (; half < n && half < kernel.minHalf(); half <<= 1)
+            for (int i = 0; i < n; i += 2 * half)
+                butterflies(re, im, 2 * half, i, 0, half);
+        for (; 2 * half < n; half <<= 2)
+            kernel.radix4(re, im, stageCos, stageSin, n, half);
+        if (half < n)
+            kernel.radix2(re, im, stageCos, stageSin, n, half);
+    }
+
+    /**
+     * Radix-2-FFT, bei der die Stufen bis zur Teillaenge BLOCK Block fuer
+     * Block gerechnet werden, solange der Block im Cache liegt. Jede
+     * Butterfly rechnet wie bei radix2(), das Ergebnis ist bitgleich.
+     */
+    private void radix2Blocked(double[] re, double[] im) {
+        bitReverse(re, im, 0, n);
+        int block = Math.min(BLOCK, n);
+        for (int start = 0; start < n; start += block)
+            for (int len = 2; len <= block; len <<= 1)
+                for (int i = start; i < start + block; i += len)
+                    butterflies(re, im, len, i, 0, len >> 1);
+        for (int len = 2 * block; len <= n; len <<= 1)
+            for (int i = 0; i < n; i += len)
+                butterflies(re, im, len, i, 0, len >> 1);
+    }
+
+    /**
+     * Vertauscht die Eintraege i und bitReverse[i] fuer from <= i < to. Jedes
+     * Paar wird nur von seinem kleineren Index aus vertauscht, disjunkte
+     * Bereiche koennen also parallel bearbeitet werden.
+     */
+    void bitReverse(double[] re, double[] im, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int j = bitReverse[i];
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+    }
+
+    /**
+     * Radix-2-Butterflies j = from, ..., to-1 der Gruppe ab dem Index start in
+     * der Stufe mit der Teillaenge len. Die serielle und die parallele FFT
+     * rechnen beide hiermit und liefern so bitgleiche Ergebnisse.
+     */
+    void butterflies(double[] re, double[] im, int len, int start, int from,
+            int to) {
+        int half = len >> 1;
+        int step = n / len;
+        for (int j = from; j < to; j++) {
+            double wr = cos[j * step];
+            double wi = sin[j * step];
+            int a = start + j;
+            int b = a + half;
+            double tr = wr * re[b] - wi * im[b];
+            double ti = wr * im[b] + wi * re[b];
+            re[b] = re[a] - tr;
+            im[b] = im[a] - ti;
+            re[a] += tr;
+            im[a] += ti;
+        }
+    }
+
+    /**
+     * Mixed-Radix-FFT: Die Eingabe wird kopiert und rekursiv in radix[0]
+     * Teilfolgen zerlegt, deren Transformierte direkt in re und im landen.
+     */
+    private void mixedRadix(double[] re, double[] im) {
+        Work w = work.get();
+        if (w.re == null) {
+            w.re = new double[n];
+            w.im = new double[n];
+            int p = 0;
+            for (int f : radix)
+                p = Math.max(p, f);
+            w.pRe = new double[p];
+            w.pIm = new double[p];
+        }
+        System.arraycopy(re, 0, w.re, 0, n);
+        System.arraycopy(im, 0, w.im, 0, n);
+        mixedRadix(re, im, 0, w.re, w.im, 0, 1, 0, w);
+    }
+
+    /**
+     * Transformiert die Teilfolge in[in], in[in+stride], ... der Laenge
+     * radix[stage]*rest[stage] nach out[out], ..., out[out+laenge-1].
+     */
+    private void mixedRadix(double[] outRe, double[] outIm, int out,
+            double[] inRe, double[] inIm, int in, int stride, int stage,
+            Work w) {
+        int p = radix[stage];
+        int m = rest[stage];
+        if (m == 1) {
+            for (int j = 0; j < p; j++) {
+                outRe[out + j] = inRe[in + j * stride];
+                outIm[out + j] = inIm[in + j * stride];
+            }
+        } else {
+            for (int j = 0; j < p; j++)
+                mixedRadix(outRe, outIm, out + j * m, inRe, inIm, in + j
+                        * stride, stride * p, stage + 1, w);
+        }
+
+        switch (p) {
+        case 2:
+            butterfly2(outRe, outIm, out, stride, m);
+            break;
+        case 3:
+            butterfly3(outRe, outIm, out, stride, m);
+            break;
+        case 4:
+            butterfly4(outRe, outIm, out, stride, m);
+            break;
+        case 5:
+            butterfly5(outRe, outIm, out, stride, m);
+            break;
+        default:
+            butterfly(outRe, outIm, out, stride, m, p, w);
+        }
+    }
+
+    private void butterfly2(double[] re, double[] im, int out, int stride,
+            int m) {
+        for (int u = 0; u < m; u++) {
+            int a = out + u;
+            int b = a + m;
+            double wr = cos[u * stride];
+            double wi = sin[u * stride];
+            double tr = wr * re[b] - wi * im[b];
+            double ti = wr * im[b] + wi * re[b];
+            re[b] = re[a] - tr;
+            im[b] = im[a] - ti;
+            re[a] += tr;
+            im[a] += ti;
+        }
+    }
+
+    private void butterfly3(double[] re, double[] im, int out, int stride,
+            int m) {
+        // exp(-+2*pi*i/3) = -1/2 -+ i*sqrt(3)/2
+        double s3 = sin[stride * m];
+        for (int u = 0; u < m; u++) {
+            int i0 = out + u, i1 = i0 + m, i2 = i1 + m;
+            int t1 = u * stride, t2 = 2 * t1;
+            double x1r = cos[t1] * re[i1] - sin[t1] * im[i1];
+            double x1i = cos[t1] * im[i1] + sin[t1] * re[i1];
+            double x2r = cos[t2] * re[i2] - sin[t2] * im[i2];
+            double x2i = cos[t2] * im[i2] + sin[t2] * re[i2];
+
+            double sr = x1r + x2r, si = x1i + x2i;
+            double dr = x1r - x2r, di = x1i - x2i;
+            double tr = re[i0] - 0.5 * sr, ti = im[i0] - 0.5 * si;
+            re[i0] += sr;
+            im[i0] += si;
+            re[i1] = tr - s3 * di;
+            im[i1] = ti + s3 * dr;
+            re[i2] = tr + s3 * di;
+            im[i2] = ti - s3 * dr;
+        }
+    }
+
+    private void butterfly4(double[] re, double[] im, int out, int stride,
+            int m) {
+        for (int u = 0; u < m; u++) {
+            int i0 = out + u, i1 = i0 + m, i2 = i1 + m, i3 = i2 + m;
+            int t1 = u * stride, t2 = 2 * t1, t3 = 3 * t1;
+            double x1r = cos[t1] * re[i1] - sin[t1] * im[i1];
+            double x1i = cos[t1] * im[i1] + sin[t1] * re[i1];
+            double x2r = cos[t2] * re[i2] - sin[t2] * im[i2];
+            double x2i = cos[t2] * im[i2] + sin[t2] * re[i2];
+            double x3r = cos[t3] * re[i3] - sin[t3] * im[i3];
+            double x3i = cos[t3] * im[i3] + sin[t3] * re[i3];
+
+            double ar = re[i0] + x2r, ai = im[i0] + x2i;
+            double br = re[i0] - x2r, bi = im[i0] - x2i;
+            double cr = x1r + x3r, ci = x1i + x3i;
+            double dr = x1r - x3r, di = x1i - x3i;
+            re[i0] = ar + cr;
+            im[i0] = ai + ci;
+            re[i2] = ar - cr;
+            im[i2] = ai - ci;
+            // y1 = b -+ i*d, y3 = b +- i*d
+            if (inverse) {
+                re[i1] = br - di;
+                im[i1] = bi + dr;
+                re[i3] = br + di;
+                im[i3] = bi - dr;
+            } else {
+                re[i1] = br + di;
+                im[i1] = bi - dr;
+                re[i3] = br - di;
+                im[i3] = bi + dr;
+            }
+        }
+    }
+
+    private void butterfly5(double[] re, double[] im, int out, int stride,
+            int m) {
+        // ya = w_5, yb = w_5^2
+        double yar = cos[stride * m], yai = sin[stride * m];
+        double ybr = cos[2 * stride * m], ybi = sin[2 * stride * m];
+        for (int u = 0; u < m; u++) {
+            int i0 = out + u, i1 = i0 + m, i2 = i1 + m, i3 = i2 + m, i4 = i3
+                    + m;
+            int t1 = u * stride, t2 = 2 * t1, t3 = 3 * t1, t4 = 4 * t1;
+            double x1r = cos[t1] * re[i1] - sin[t1] * im[i1];
+            double x1i = cos[t1] * im[i1] + sin[t1] * re[i1];
+            double x2r = cos[t2] * re[i2] - sin[t2] * im[i2];
+            double x2i = cos[t2] * im[i2] + sin[t2] * re[i2];
+            double x3r = cos[t3] * re[i3] - sin[t3] * im[i3];
+            double x3i = cos[t3] * im[i3] + sin[t3] * re[i3];
+            double x4r = cos[t4] * re[i4] - sin[t4] * im[i4];
+            double x4i = cos[t4] * im[i4] + sin[t4] * re[i4];
+
+            double x0r = re[i0], x0i = im[i0];
+            double s14r = x1r + x4r, s14i = x1i + x4i;
+            double d14r = x1r - x4r, d14i = x1i - x4i;
+            double s23r = x2r + x3r, s23i = x2i + x3i;
+            double d23r = x2r - x3r, d23i = x2i - x3i;
+
+            re[i0] = x0r + s14r + s23r;
+            im[i0] = x0i + s14i + s23i;
+
+            double ar = x0r + yar * s14r + ybr * s23r;
+            double ai = x0i + yar * s14i + ybr * s23i;
+            double br = yai * d14r + ybi * d23r;
+            double bi = yai * d14i + ybi * d23i;
+            re[i1] = ar - bi;
+            im[i1] = ai + br;
+            re[i4] = ar + bi;
+            im[i4] = ai - br;
+
+            double cr = x0r + ybr * s14r + yar * s23r;
+            double ci = x0i + ybr * s14i + yar * s23i;
+            double dr = ybi * d14r - yai * d23r;
+            double di = ybi * d14i - yai * d23i;
+            re[i2] = cr - di;
+            im[i2] = ci + dr;
+            re[i3] = cr + di;
+            im[i3] = ci - dr;
+        }
+    }
+
+    /** Allgemeine Butterfly fuer den Faktor p, Aufwand O(p^2) pro Gruppe */
+    private void butterfly(double[] re, double[] im, int out, int stride,
+            int m, int p, Work w) {
+        double[] xr = w.pRe, xi = w.pIm;
+        for (int u = 0; u < m; u++) {
+            for (int q = 0; q < p; q++) {
+                int i = out + u + q * m;
+                int t = q * u * stride;
+                xr[q] = cos[t] * re[i] - sin[t] * im[i];
+                xi[q] = cos[t] * im[i] + sin[t] * re[i];
+            }
+            int step = stride * m;
+            for (int k = 0; k < p; k++) {
+                double sr = xr[0], si = xi[0];
+                int t = 0;
+                int dt = k * step;
+                for (int q = 1; q < p; q++) {
+                    t += dt;
+                    if (t >= n)
+                        t -= n;
+                    sr += cos[t] * xr[q] - sin[t] * xi[q];
+                    si += cos[t] * xi[q] + sin[t] * xr[q];
+                }
+                re[out + u + k * m] = sr;
+                im[out + u + k * m] = si;
+            }
+        }
+    }
+
+    /**
+     * Bluestein: X_k = w_k * sum_j (x_j w_j) conj(w_{k-j}), die Faltung
+     * wird zyklisch mit Laenge m ueber die Zweierpotenz-FFT berechnet.
+     */
+    private void bluestein(double[] re, double[] im) {
+        int m = forward.n;
+        Work w = work.get();
+        if (w.re == null) {
+            w.re = new double[m];
+            w.im = new double[m];
+        }
+        double[] ar = w.re, ai = w.im;
+        for (int k = 0; k < n; k++) {
+            ar[k] = re[k] * cos[k] - im[k] * sin[k];
+            ai[k] = re[k] * sin[k] + im[k] * cos[k];
+        }
+        for (int k = n; k < m; k++) {
+            ar[k] = 0;
+            ai[k] = 0;
+        }
+
+        forward.execute(ar, ai);
+        for (int k = 0; k < m; k++) {
+            double tr = ar[k] * chirpRe[k] - ai[k] * chirpIm[k];
+            ai[k] = ar[k] * chirpIm[k] + ai[k] * chirpRe[k];
+            ar[k] = tr;
+        }
+        backward.execute(ar, ai);
+
+        for (int k = 0; k < n; k++) {
+            double cr = ar[k] / m, ci = ai[k] / m;
+            re[k] = cr * cos[k] - ci * sin[k];
+            im[k] = cr * sin[k] + ci * cos[k];
+        }
+    }
+
+    /**
+     * Waehlt RADIX2 fuer Zweierpotenzen, MIXED_RADIX, wenn alle Primfaktoren
+     * hoechstens MAX_RADIX sind, sonst BLUESTEIN
+     */
+    static int defaultStrategy(int n) {
+        if (FFT.isPowerOfTwo(n))
+            return RADIX2;
+        for (int f : factorize(n))
+            if (f > MAX_RADIX)
+                return BLUESTEIN;
+        return MIXED_RADIX;
+    }
+
+    /**
+     * Zerlegt n in Faktoren, zuerst so viele 4 wie moeglich, dann 2, 3, 5 und
+     * die uebrigen Primzahlen
+     */
+    static int[] factorize(int n) {
+        int[] f = new int[32];
+        int count = 0;
+        int p = 4;
+        while (n > 1) {
+            while (n % p != 0) {
+                if (p == 4)
+                    p = 2;
+                else if (p == 2)
+                    p = 3;
+                else if ((long) p * p > n)
+                    p = n;
+                else
+                    p += 2;
+            }
+            f[count++] = p;
+            n /= p;
+        }
+        if (count == 0)
+            f[count++] = 1;
+        int[] result = new int[count];
+        System.arraycopy(f, 0, result, 0, count);
+        return result;
+    }
+
+    private static long key(int n, boolean inverse) {
+        return ((long) n << 1) | (inverse ? 1 : 0);
+    }
+}
@@ -0,0 +1,203 @@
+package dft;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Waehlt fuer jede Laenge das schnellste Verfahren eines FftPlan. Im Modus
+ * ESTIMATE wird nach Faustregeln gewaehlt (FftPlan.defaultStrategy), im
+ * Modus MEASURE werden alle moeglichen Verfahren auf Zufallsdaten gemessen:
+ * RADIX2 und RADIX2_BLOCKED fuer Zweierpotenzen, MIXED_RADIX (fuer
+ * Zweierpotenzen mit Radix-4-Butterflies), BLUESTEIN fuer alle anderen.
+ *
+ * Die gemessenen Ergebnisse ("Wisdom") werden in einer Properties-Datei
+ * gespeichert, z.B. "1024.forward=radix2-blocked". Die Datei wird beim
+ * ersten Aufruf von FftPlan.get() geladen, so dass alle Transformationen die
+ * gemessenen Verfahren verwenden. Voreingestellt ist die Datei .fftwisdom im
+ * Home-Verzeichnis, mit der System-Property dft.wisdom kann eine andere
+ * angegeben werden. Eintraege, die nicht zu ihrer Laenge passen (z.B. von
+ * Hand geaendert), werden ignoriert, dann wird wie bei ESTIMATE gewaehlt.
+ */
+public class FftPlanner {
+    public final static int ESTIMATE = 0;
+    public final static int MEASURE = 1;
+
+    /** Mindestdauer einer Messung in Nanosekunden */
+    final static long MEASURE_TIME = 20000000L;
+
+    /** Anzahl der Messungen pro Verfahren, gewertet wird die schnellste */
+    final static int TRIALS = 3;
+
+    /** Groesster Primfaktor, fuer den MIXED_RADIX noch gemessen wird */
+    final static int MAX_MEASURED_RADIX = 101;
+
+    /** Planer mit der voreingestellten Datei, wird bei Bedarf erzeugt */
+    private static FftPlanner defaultPlanner;
+
+    /** Datei der gespeicherten Messungen, evtl. null */
+    private final Path file;
+
+    /** gemessene Verfahren, Schluessel siehe key() */
+    private final Properties wisdom = new Properties();
+
+    /** Planer mit der voreingestellten Datei */
+    public static synchronized FftPlanner getDefault() {
+        if (defaultPlanner == null) {
+            String name = System.getProperty("dft.wisdom",
+                    System.getProperty("user.home") + "/.fftwisdom");
+            defaultPlanner = new FftPlanner(Paths.get(name));
+        }
+        return defaultPlanner;
+    }
+
+    /**
+     * Planer mit der Datei file fuer die Messungen. Existiert sie, werden die
+     * Messungen geladen. Bei file == null wird nichts gespeichert.
+     */
+    public FftPlanner(Path file) {
+        this.file = file;
+        if (file != null && Files.isReadable(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                wisdom.load(in);
+            } catch (IOException e) {
+                // eine kaputte Datei ist wie keine Datei
+                wisdom.clear();
+            }
+        }
+    }
+
+    /**
+     * Verfahren fuer die Laenge n und Richtung inverse nach den Messungen des
+     * voreingestellten Planers, sonst FftPlan.defaultStrategy(n)
+     */
+    static int strategy(int n, boolean inverse) {
+        Integer s = getDefault().lookup(n, inverse);
+        return (s != null) ? s : FftPlan.defaultStrategy(n);
+    }
+
+    /**
+     * Gibt einen Plan fuer die Laenge n und Richtung inverse zurueck und legt
+     * ihn im Zwischenspeicher von FftPlan ab, so dass auch FFT, RealFFT usw.
+     * ihn verwenden. Bei MEASURE wird gemessen, falls noch keine Messung fuer
+     * n vorliegt, und das Ergebnis gespeichert.
+     */
+    public FftPlan plan(int n, boolean inverse, int mode) {
+        Integer s = lookup(n, inverse);
+        if (s == null && mode == MEASURE) {
+            s = measure(n, inverse);
+            wisdom.setProperty(key(n, inverse), FftPlan.STRATEGY_NAMES[s]);
+            try {
+                save();
+            } catch (IOException e) {
+                // die Messung gilt trotzdem fuer diesen Lauf
+            }
+        }
+        if (s == null)
+            s = FftPlan.defaultStrategy(n);
+        FftPlan plan = new FftPlan(n, inverse, s);
+        FftPlan.install(plan);
+        return plan;
+    }
+
+    /** Schreibt die Messungen in die Datei */
+    public synchronized void save() throws IOException {
+        if (file == null)
+            return;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            wisdom.store(out, "FFT wisdom: schnellstes Verfahren pro Laenge");
+        }
+    }
+
+    /** Verwirft alle Messungen (die Datei bleibt bis zum naechsten save()) */
+    public void forget() {
+        wisdom.clear();
+    }
+
+    /** Misst alle moeglichen Verfahren und gibt das schnellste zurueck */
+    int measure(int n, boolean inverse) {
+        Random random = new Random(n);
+        double[] re0 = new double[n], im0 = new double[n];
+        for (int i = 0; i < n; i++) {
+            re0[i] = random.nextGaussian();
+            im0[i] = random.nextGaussian();
+        }
+        double[] re = new double[n], im = new double[n];
+
+        int best = FftPlan.defaultStrategy(n);
+        double bestTime = Double.MAX_VALUE;
+        for (int s : candidates(n)) {
+            FftPlan plan = new FftPlan(n, inverse, s);
+            double time = Double.MAX_VALUE;
+            for (int t = 0; t <= TRIALS; t++) {
+                long runs = 0;
+                long start = System.nanoTime(), elapsed;
+                do {
+                    System.arraycopy(re0, 0, re, 0, n);
+                    System.arraycopy(im0, 0, im, 0, n);
+                    plan.execute(re, im);
+                    runs++;
+                    elapsed = System.nanoTime() - start;
+                } while (elapsed < MEASURE_TIME);
+                // der erste Durchgang waermt nur den JIT-Compiler auf
+                if (t > 0)
+                    time = Math.min(time, (double) elapsed / runs);
+            }
+            if (time < bestTime) {
+                bestTime = time;
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Die fuer die Laenge n moeglichen Verfahren. BLUESTEIN rechnet mit Plaenen
+     * fuer Zweierpotenzen und kommt deshalb fuer diese nicht in Frage.
+     */
+    static int[] candidates(int n) {
+        List<Integer> list = new ArrayList<Integer>();
+        if (FFT.isPowerOfTwo(n)) {
+            list.add(FftPlan.RADIX2);
+            list.add(FftPlan.RADIX2_BLOCKED);
+        }
+        int largest = 1;
+        for (int f : FftPlan.factorize(n))
+            largest = Math.max(largest, f);
+        if (largest <= MAX_MEASURED_RADIX)
+            list.add(FftPlan.MIXED_RADIX);
+        if (!FFT.isPowerOfTwo(n))
+            list.add(FftPlan.BLUESTEIN);
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = list.get(i);
+        return result;
+    }
+
+    /**
+     * Gespeichertes Verfahren fuer n und inverse, null wenn keines gespeichert
+     * ist oder es nicht zu candidates(n) gehoert. Sonst wuerde z.B.
+     * "1.forward=bluestein" einen BLUESTEIN-Plan der Laenge 1 ergeben, der
+     * sich selbst als Teilplan braucht.
+     */
+    private Integer lookup(int n, boolean inverse) {
+        String name = wisdom.getProperty(key(n, inverse));
+        if (name == null)
+            return null;
+        for (int s : candidates(n))
+            if (FftPlan.STRATEGY_NAMES[s].equals(name))
+                return s;
+        return null;
+    }
+
+    private static String key(int n, boolean inverse) {
+        return n + (inverse ? ".inverse" : ".forward");
+    }
+}
@@ -0,0 +1,195 @@
+package dft;
+
+/**
+ * Einzelne Eintraege der DFT mit dem Goertzel-Algorithmus. Fuer eine
+ * Frequenz f (Schwingungen pro n Abtastwerte, auch nicht ganzzahlig) und
+ * w = 2*pi*f/n wird die reelle Rekursion
+ *
+ * s_j = x_j + 2*cos(w)*s_{j-1} - s_{j-2}
+ *
+ * ueber die n Abtastwerte gerechnet, am Ende ist
+ *
+ * X(f) = sum_j x_j * exp(-i*w*j) = exp(-i*w*n) * (exp(i*w)*s_{n-1} - s_{n-2}).
+ *
+ * Fuer ganzzahlige f ist exp(-i*w*n) = 1. Das kostet O(n) pro Frequenz mit
+ * nur einer Multiplikation pro Abtastwert. Fuer weniger als etwa log n
+ * Frequenzen ist das schneller als eine FFT, und die Werte muessen nicht
+ * gepuffert werden: Mit push() wird ein fortlaufendes Signal in Bloecken
+ * von n Werten ausgewertet.
+ *
+ * Fuer Frequenzen nahe 0 (und n/2) ist cos(w) fast 1 und die Rekursion
+ * verstaerkt Rundungsfehler, der Fehler waechst etwa wie n^2 * eps. Fuer
+ * sehr lange Bloecke mit tiefen Frequenzen ist FFT genauer.
+ */
+public class Goertzel {
+    /** Blocklaenge */
+    private final int n;
+
+    /** die berechneten Frequenzen */
+    private final double[] frequencies;
+
+    /** 2*cos(w), cos(w), sin(w) und exp(-i*w*n) fuer jede Frequenz */
+    private final double[] coeff, cos, sin, phaseRe, phaseIm;
+
+    /** Zustand s_{j-1} und s_{j-2} der Rekursion im laufenden Block */
+    private final double[] s1, s2;
+
+    /** Ergebnis des letzten vollstaendigen Blocks, nicht normiert */
+    private final double[] resultRe, resultIm;
+
+    /** Abtastwerte im laufenden Block */
+    private int count = 0;
+
+    /** Anzahl der vollstaendigen Bloecke */
+    private long blocks = 0;
+
+    /**
+     * Goertzel-Auswertung der Blocklaenge n fuer die ganzzahligen Frequenzen
+     * bins mit 0 <= bins[i] < n
+     */
+    public Goertzel(int n, int[] bins) {
+        this(n, toDouble(n, bins));
+    }
+
+    /**
+     * Goertzel-Auswertung der Blocklaenge n fuer die Frequenzen frequencies,
+     * gemessen in Schwingungen pro n Abtastwerte
+     */
+    public Goertzel(int n, double[] frequencies) {
+        if (n < 1)
+            throw new IllegalArgumentException("Die Blocklaenge " + n
+                    + " ist nicht positiv");
+        this.n = n;
+        this.frequencies = frequencies.clone();
+        int m = frequencies.length;
+        coeff = new double[m];
+        cos = new double[m];
+        sin = new double[m];
+        phaseRe = new double[m];
+        phaseIm = new double[m];
+        for (int b = 0; b < m; b++) {
+            double f = frequencies[b];
+            double w = 2 * Math.PI * f / n;
+            cos[b] = Math.cos(w);
+            sin[b] = Math.sin(w);
+            coeff[b] = 2 * cos[b];
+            // exp(-i*w*n) = exp(-2*pi*i*f), nur der Bruchteil von f zaehlt
+            double frac = f - Math.floor(f);
+            phaseRe[b] = Math.cos(2 * Math.PI * frac);
+            phaseIm[b] = -Math.sin(2 * Math.PI * frac);
+        }
+        s1 = new double[m];
+        s2 = new double[m];
+        resultRe = new double[m];
+        resultIm = new double[m];
+    }
+
+    /**
+     * Eintraege bins der DFT von v, normiert wie DFT.dft (Division durch
+     * v.length)
+     */
+    public static Complex[] dft(double[] v, int[] bins) {
+        return new Goertzel(v.length, bins).evaluate(v);
+    }
+
+    /**
+     * DFT von v an den (auch nicht ganzzahligen) Frequenzen frequencies,
+     * normiert wie DFT.dft
+     */
+    public static Complex[] dft(double[] v, double[] frequencies) {
+        return new Goertzel(v.length, frequencies).evaluate(v);
+    }
+
+    /**
+     * Nimmt den naechsten Abtastwert x auf. Gibt true zurueck, wenn damit ein
+     * Block von n Werten vollstaendig ist; dessen Ergebnis steht dann bis zum
+     * Ende des naechsten Blocks zur Verfuegung.
+     */
+    public boolean push(double x) {
+        for (int b = 0; b < coeff.length; b++) {
+            double s = x + coeff[b] * s1[b] - s2[b];
+            s2[b] = s1[b];
+            s1[b] = s;
+        }
+        if (++count < n)
+            return false;
+
+        for (int b = 0; b < coeff.length; b++) {
+            // exp(i*w)*s_{n-1} - s_{n-2}, dann mit exp(-i*w*n) drehen
+            double r = cos[b] * s1[b] - s2[b];
+            double i = sin[b] * s1[b];
+            resultRe[b] = r * phaseRe[b] - i * phaseIm[b];
+            resultIm[b] = r * phaseIm[b] + i * phaseRe[b];
+            s1[b] = 0;
+            s2[b] = 0;
+        }
+        count = 0;
+        blocks++;
+        return true;
+    }
+
+    /** Nimmt die Abtastwerte samples der Reihe nach auf */
+    public void push(double[] samples) {
+        for (double x : samples)
+            push(x);
+    }
+
+    /** Verwirft den laufenden Block */
+    public void reset() {
+        for (int b = 0; b < coeff.length; b++) {
+            s1[b] = 0;
+            s2[b] = 0;
+        }
+        count = 0;
+    }
+
+    /** Anzahl der bisher vollstaendigen Bloecke */
+    public long getBlocks() {
+        return blocks;
+    }
+
+    /** Gibt die b-te Frequenz zurueck */
+    public double getFrequency(int b) {
+        return frequencies[b];
+    }
+
+    /**
+     * Gibt den Realteil des b-ten Eintrags des letzten Blocks zurueck,
+     * normiert wie FFT.fft (Division durch n)
+     */
+    public double getReal(int b) {
+        return resultRe[b] / n;
+    }
+
+    /** Gibt den Imaginaerteil des b-ten Eintrags zurueck, normiert */
+    public double getImaginaer(int b) {
+        return resultIm[b] / n;
+    }
+
+    /** Gibt den Betrag des b-ten Eintrags zurueck, normiert */
+    public double getMagnitude(int b) {
+        return Math.sqrt(resultRe[b] * resultRe[b]
+                + resultIm[b] * resultIm[b]) / n;
+    }
+
+    /** Wertet den Block v (Laenge n) eines neuen Goertzel aus */
+    private Complex[] evaluate(double[] v) {
+        push(v);
+        Complex[] c = new Complex[coeff.length];
+        for (int b = 0; b < c.length; b++)
+            c[b] = new Complex(getReal(b), getImaginaer(b));
+        return c;
+    }
+
+    /** Prueft die ganzzahligen Frequenzen bins */
+    private static double[] toDouble(int n, int[] bins) {
+        double[] f = new double[bins.length];
+        for (int b = 0; b < bins.length; b++) {
+            if (bins[b] < 0 || bins[b] >= n)
+                throw new IllegalArgumentException("Die Frequenz " + bins[b]
+                        + " liegt nicht zwischen 0 und " + (n - 1));
+            f[b] = bins[b];
+        }
+        return f;
+    }
+}
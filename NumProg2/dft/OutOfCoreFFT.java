@@ -0,0 +1,358 @@
+package dft;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * FFT fuer Signale, die nicht in den Hauptspeicher passen. Das Signal liegt
+ * in einer Datei als komplexe Zahlen, je zwei double (Real-, dann
+ * Imaginaerteil) im Little-Endian-Format, insgesamt n = Dateigroesse/16
+ * Eintraege.
+ *
+ * Gerechnet wird mit dem Six-Step-Verfahren fuer n = n1*n2 mit n1, n2 nahe
+ * sqrt(n). Das Signal wird als Matrix mit n1 Zeilen der Laenge n2 aufgefasst:
+ * 1. transponieren,
+ * 2. n2 FFTs der Laenge n1 ueber die Zeilen,
+ * 3. Eintrag (j2, k1) mit w_n^(j2*k1) multiplizieren,
+ * 4. transponieren,
+ * 5. n1 FFTs der Laenge n2 ueber die Zeilen,
+ * 6. transponieren.
+ * Die Schritte 2 und 3 sind ein gemeinsamer Durchlauf. Jeder Durchlauf liest
+ * die Datei der Reihe nach in Stuecken von etwa chunkBytes Bytes ueber
+ * FileChannel.map() ein. Beim Transponieren wird die Matrix in Bloecke von
+ * etwa chunkBytes Bytes zerlegt, die mindestens sqrt(chunkBytes/16) Zeilen
+ * und Spalten haben (bzw. alle). Jeder Block wird mit wenigen grossen
+ * Abschnitten gelesen, im Speicher kachelweise transponiert und ebenso
+ * zurueckgeschrieben: Jeder Abschnitt umfasst mindestens sqrt(chunkBytes/16)
+ * Eintraege, bei 64 MB also 32 KB, und ist eine ganze Zeile bzw. Spalte,
+ * wenn diese in einen Block passt. Im Speicher liegen also nur wenige
+ * Stuecke und einzelne Zeilen, nie das ganze Signal.
+ *
+ * Die Einheitswurzeln w_n^m fuer m < n stammen aus zwei Tabellen der Laenge
+ * n1 und n2: w_n^m = w_n^(q*n1) * w_n^r mit m = q*n1 + r.
+ *
+ * Die Normierung entspricht FFT: fft() teilt durch n, ifft() nicht.
+ */
+public class OutOfCoreFFT {
+    /** Voreingestellte Groesse der Stuecke: 64 MB */
+    final static long DEFAULT_CHUNK = 64L << 20;
+
+    /** Kantenlaenge der Kacheln beim Transponieren im Speicher */
+    final static int TILE = 32;
+
+    /** Bytes pro komplexer Zahl */
+    private final static int BYTES = 16;
+
+    /** Groesse der Stuecke, die auf einmal gelesen werden */
+    private final long chunkBytes;
+
+    /** Stuecke von DEFAULT_CHUNK Bytes */
+    public OutOfCoreFFT() {
+        this(DEFAULT_CHUNK);
+    }
+
+    /**
+     * Stuecke von chunkBytes Bytes. Pro Durchlauf werden etwa zwei Stuecke im
+     * Speicher gehalten.
+     */
+    public OutOfCoreFFT(long chunkBytes) {
+        if (chunkBytes < BYTES || chunkBytes > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Ungueltige Groesse "
+                    + chunkBytes);
+        this.chunkBytes = chunkBytes;
+    }
+
+    /** Transformiert die Datei file in place, normiert (Division durch n) */
+    public void fft(Path file) throws IOException {
+        transform(file, file, false);
+    }
+
+    /**
+     * Transformiert die Datei in und schreibt das Ergebnis nach out, normiert
+     * (Division durch n). in bleibt unveraendert.
+     */
+    public void fft(Path in, Path out) throws IOException {
+        transform(in, out, false);
+    }
+
+    /** Inverse Transformation der Datei file in place, nicht normiert */
+    public void ifft(Path file) throws IOException {
+        transform(file, file, true);
+    }
+
+    /** Inverse Transformation von in nach out, nicht normiert */
+    public void ifft(Path in, Path out) throws IOException {
+        transform(in, out, true);
+    }
+
+    /** Schreibt re + i*im im Format dieser Klasse in die Datei file */
+    public static void write(Path file, double[] re, double[] im)
+            throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(re.length * BYTES).order(
+                ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < re.length; i++) {
+            buf.putDouble(re[i]);
+            buf.putDouble(im[i]);
+        }
+        buf.flip();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining())
+                ch.write(buf);
+        }
+    }
+
+    /** Liest die Datei file, Ergebnis {re, im} */
+    public static double[][] read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int n = bytes.length / BYTES;
+        ByteBuffer buf = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        double[][] z = new double[2][n];
+        for (int i = 0; i < n; i++) {
+            z[0][i] = buf.getDouble();
+            z[1][i] = buf.getDouble();
+        }
+        return z;
+    }
+
+    private void transform(Path in, Path out, boolean inverse)
+            throws IOException {
+        long n = Files.size(in) / BYTES;
+        if (n == 0)
+            return;
+        int n1 = split(n);
+        int n2 = (int) (n / n1);
+        if ((long) Math.max(n1, n2) * BYTES > chunkBytes)
+            throw new IllegalArgumentException("Die Laenge " + n
+                    + " laesst sich nicht in Zeilen zerlegen, die in ein"
+                    + " Stueck passen");
+
+        boolean inPlace = Files.exists(out) && Files.isSameFile(in, out);
+        Path tmp = Files.createTempFile(out.toAbsolutePath().getParent(),
+                "fft", ".tmp");
+        try (FileChannel t = FileChannel.open(tmp, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (inPlace) {
+                try (FileChannel f = FileChannel.open(in,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    // in -> tmp -> in -> tmp, danach zurueckkopieren
+                    transpose(f, t, n1, n2);
+                    rows(t, n2, n1, inverse, n, 1);
+                    transpose(t, f, n2, n1);
+                    rows(f, n1, n2, inverse, 0, inverse ? 1 : 1.0 / n);
+                    transpose(f, t, n1, n2);
+                    copy(t, f, n * BYTES);
+                }
+            } else {
+                try (FileChannel src = FileChannel.open(in,
+                        StandardOpenOption.READ);
+                        FileChannel dst = FileChannel.open(out,
+                                StandardOpenOption.READ,
+                                StandardOpenOption.WRITE,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING)) {
+                    // in -> out -> tmp -> out
+                    transpose(src, dst, n1, n2);
+                    rows(dst, n2, n1, inverse, n, 1);
+                    transpose(dst, t, n2, n1);
+                    rows(t, n1, n2, inverse, 0, inverse ? 1 : 1.0 / n);
+                    transpose(t, dst, n1, n2);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Transformiert die count Zeilen der Laenge len der Datei ch in place und
+     * multipliziert mit scale. Ist n > 0, wird danach der Eintrag (j, k) mit
+     * w_n^(j*k) multipliziert.
+     */
+    private void rows(FileChannel ch, int count, int len, boolean inverse,
+            long n, double scale) throws IOException {
+        FftPlan plan = FftPlan.get(len, inverse);
+        double[][] tw = (n > 0) ? twiddles(n, len, inverse) : null;
+        int perChunk = (int) Math.max(1, chunkBytes / ((long) len * BYTES));
+        double[] buf = new double[2 * len];
+        double[] re = new double[len], im = new double[len];
+
+        for (int r0 = 0; r0 < count; r0 += perChunk) {
+            int r1 = Math.min(count, r0 + perChunk);
+            DoubleBuffer db = map(ch, MapMode.READ_WRITE, (long) r0 * len,
+                    (long) (r1 - r0) * len);
+            for (int r = r0; r < r1; r++) {
+                int pos = db.position();
+                db.get(buf);
+                for (int k = 0; k < len; k++) {
+                    re[k] = buf[2 * k];
+                    im[k] = buf[2 * k + 1];
+                }
+                plan.execute(re, im);
+                for (int k = 0; k < len; k++) {
+                    double a = re[k] * scale, b = im[k] * scale;
+                    if (tw != null) {
+                        // w_n^(r*k) = coarse[m / len] * fine[m % len]
+                        long m = (long) r * k;
+                        int q = (int) (m / len), f = (int) (m % len);
+                        double wr = tw[0][q] * tw[2][f] - tw[1][q] * tw[3][f];
+                        double wi = tw[0][q] * tw[3][f] + tw[1][q] * tw[2][f];
+                        double t = a * wr - b * wi;
+                        b = a * wi + b * wr;
+                        a = t;
+                    }
+                    buf[2 * k] = a;
+                    buf[2 * k + 1] = b;
+                }
+                db.position(pos);
+                db.put(buf);
+            }
+        }
+    }
+
+    /**
+     * Schreibt die Transponierte der Matrix in src (rows Zeilen der Laenge
+     * cols) nach dst, blockweise mit tr x tc Eintraegen, tr*tc <= chunkBytes/16.
+     * Aus src werden tr Abschnitte der Laenge tc gelesen, nach dst tc
+     * Abschnitte der Laenge tr geschrieben, jeweils am Stueck, wenn tc == cols
+     * bzw. tr == rows.
+     */
+    private void transpose(FileChannel src, FileChannel dst, int rows,
+            int cols) throws IOException {
+        long entries = Math.max(1, chunkBytes / BYTES);
+        int side = (int) Math.max(1, Math.sqrt((double) entries));
+        int tc = Math.min(cols, side);
+        int tr = (int) Math.min(rows, entries / tc);
+        ByteBuffer block = ByteBuffer.allocateDirect(tr * tc * BYTES).order(
+                ByteOrder.LITTLE_ENDIAN);
+        double[] out = new double[2 * tr * tc];
+
+        for (int y0 = 0; y0 < rows; y0 += tr) {
+            int b = Math.min(tr, rows - y0);
+            for (int x0 = 0; x0 < cols; x0 += tc) {
+                int c = Math.min(tc, cols - x0);
+
+                block.clear();
+                if (c == cols) {
+                    read(src, block, (long) y0 * cols, b * c);
+                } else {
+                    for (int y = 0; y < b; y++)
+                        read(src, block, (long) (y0 + y) * cols + x0, c);
+                }
+                block.flip();
+                DoubleBuffer in = block.asDoubleBuffer();
+                for (int ty = 0; ty < b; ty += TILE) {
+                    int ty1 = Math.min(b, ty + TILE);
+                    for (int tx = 0; tx < c; tx += TILE) {
+                        int tx1 = Math.min(c, tx + TILE);
+                        for (int y = ty; y < ty1; y++) {
+                            for (int x = tx; x < tx1; x++) {
+                                out[2 * (x * b + y)] = in.get(2 * (y * c + x));
+                                out[2 * (x * b + y) + 1] = in.get(2 * (y * c + x) + 1);
+                            }
+                        }
+                    }
+                }
+
+                block.clear();
+                block.asDoubleBuffer().put(out, 0, 2 * b * c);
+                if (b == rows) {
+                    write(dst, block, 0, (long) x0 * rows, b * c);
+                } else {
+                    for (int x = 0; x < c; x++)
+                        write(dst, block, x * b, (long) (x0 + x) * rows + y0, b);
+                }
+            }
+        }
+    }
+
+    /**
+     * Liest count komplexe Zahlen ab dem Eintrag first von ch und haengt sie
+     * an buf an
+     */
+    private static void read(FileChannel ch, ByteBuffer buf, long first,
+            int count) throws IOException {
+        buf.limit(buf.position() + count * BYTES);
+        long pos = first * BYTES;
+        while (buf.hasRemaining()) {
+            int r = ch.read(buf, pos);
+            if (r < 0)
+                throw new EOFException();
+            pos += r;
+        }
+    }
+
+    /**
+     * Schreibt die count komplexen Zahlen ab dem Eintrag from von buf an den
+     * Eintrag first von ch
+     */
+    private static void write(FileChannel ch, ByteBuffer buf, int from,
+            long first, int count) throws IOException {
+        buf.limit((from + count) * BYTES).position(from * BYTES);
+        long pos = first * BYTES;
+        while (buf.hasRemaining())
+            pos += ch.write(buf, pos);
+    }
+
+    /** Bildet count komplexe Zahlen ab dem Eintrag first als DoubleBuffer ab */
+    private static DoubleBuffer map(FileChannel ch, MapMode mode, long first,
+            long count) throws IOException {
+        return ch.map(mode, first * BYTES, count * BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+    }
+
+    /** Kopiert die ersten bytes Bytes von src nach dst */
+    private static void copy(FileChannel src, FileChannel dst, long bytes)
+            throws IOException {
+        long pos = 0;
+        while (pos < bytes)
+            pos += src.transferTo(pos, bytes - pos, dst.position(pos));
+    }
+
+    /**
+     * Tabellen fuer w_n^m, m < n = n1*len, als {cos, sin} von w_n^(q*len)
+     * fuer q < n/len und {cos, sin} von w_n^r fuer r < len
+     */
+    private static double[][] twiddles(long n, int len, boolean inverse) {
+        int coarse = (int) (n / len);
+        double sign = inverse ? 1 : -1;
+        double[][] tw = new double[4][];
+        tw[0] = new double[coarse];
+        tw[1] = new double[coarse];
+        for (int q = 0; q < coarse; q++) {
+            double phi = 2 * Math.PI * q / coarse;
+            tw[0][q] = Math.cos(phi);
+            tw[1][q] = sign * Math.sin(phi);
+        }
+        tw[2] = new double[len];
+        tw[3] = new double[len];
+        for (int r = 0; r < len; r++) {
+            double phi = 2 * Math.PI * r / n;
+            tw[2][r] = Math.cos(phi);
+            tw[3][r] = sign * Math.sin(phi);
+        }
+        return tw;
+    }
+
+    /** Groesster Teiler n1 von n mit n1 <= sqrt(n) */
+    static int split(long n) {
+        long d = (long) Math.sqrt((double) n);
+        while (d * d > n)
+            d--;
+        while (n % d != 0)
+            d--;
+        if (d > Integer.MAX_VALUE || n / d > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Die Laenge " + n
+                    + " ist zu gross");
+        return (int) d;
+    }
+}
@@ -0,0 +1,151 @@
+package dft;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Parallele FFT fuer sehr lange Vektoren (z.B. 2^24 Eintraege und mehr) auf
+ * einem ForkJoinPool. Fuer Zweierpotenzen wird die Radix-2-FFT des FftPlan
+ * auf drei Schritte verteilt:
+ * 1. Die Bit-Umkehr wird in disjunkten Indexbereichen parallel ausgefuehrt.
+ * 2. Die Stufen mit Teillaenge bis BLOCK betreffen nur Eintraege innerhalb
+ *    eines Blocks. Jeder Block wird von einem Thread durch alle diese Stufen
+ *    gerechnet und bleibt dabei im Cache.
+ * 3. Die uebrigen Stufen werden jeweils in gleich grosse Stuecke von
+ *    Butterflies zerlegt, nach jeder Stufe wird synchronisiert.
+ *
+ * Alle Butterflies werden mit FftPlan.butterflies() berechnet, also mit
+ * denselben Einheitswurzeln und in derselben Rechenreihenfolge wie bei FFT.
+ * Das Ergebnis ist daher bitgleich mit dem seriellen Pfad.
+ *
+ * Kurze Vektoren und Laengen, die keine Zweierpotenz sind, werden seriell
+ * mit dem FftPlan transformiert.
+ */
+public class ParallelFFT {
+    /** Anzahl der Eintraege eines Blocks fuer die lokalen Stufen (64 KB) */
+    final static int BLOCK = 1 << 12;
+
+    /** Ab dieser Laenge wird parallel gerechnet */
+    final static int MIN_PARALLEL = 1 << 15;
+
+    /** Threads fuer die Transformation */
+    private final ForkJoinPool pool;
+
+    /** Anzahl der Teilaufgaben pro Schritt */
+    private final int tasks;
+
+    /** Rechnet auf dem gemeinsamen ForkJoinPool */
+    public ParallelFFT() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /** Rechnet auf dem Pool pool */
+    public ParallelFFT(ForkJoinPool pool) {
+        this.pool = pool;
+        this.tasks = 4 * pool.getParallelism();
+    }
+
+    /**
+     * Schnelle Fourier-Transformation des Vektors re + i*im in place, normiert
+     * wie FFT.fft (Division durch n)
+     */
+    public void fft(double[] re, double[] im) {
+        int n = re.length;
+        execute(FftPlan.get(n, false), re, im);
+        int parts = Math.min(tasks, n);
+        forEach(parts, t -> {
+            for (int i = bound(t, parts, n); i < bound(t + 1, parts, n); i++) {
+                re[i] /= n;
+                im[i] /= n;
+            }
+        });
+    }
+
+    /**
+     * Schnelle inverse Fourier-Transformation des Vektors re + i*im in place,
+     * nicht normiert wie FFT.ifft
+     */
+    public void ifft(double[] re, double[] im) {
+        execute(FftPlan.get(re.length, true), re, im);
+    }
+
+    /** Fuehrt den Plan plan parallel aus, ohne zu normieren */
+    public void execute(FftPlan plan, double[] re, double[] im) {
+        int n = plan.n;
+        if (!plan.isRadix2() || n < MIN_PARALLEL) {
+            plan.execute(re, im);
+            return;
+        }
+        if (re.length != n || im.length != n)
+            throw new IllegalArgumentException("Der Plan ist fuer die Laenge "
+                    + n + ", nicht " + re.length);
+
+        forEach(tasks, t -> plan.bitReverse(re, im, bound(t, tasks, n),
+                bound(t + 1, tasks, n)));
+
+        int block = Math.min(BLOCK, n);
+        forEach(n / block, b -> {
+            int start = b * block;
+            for (int len = 2; len <= block; len <<= 1)
+                for (int i = start; i < start + block; i += len)
+                    plan.butterflies(re, im, len, i, 0, len >> 1);
+        });
+
+        for (int len = 2 * block; len <= n; len <<= 1) {
+            int l = len;
+            int half = len >> 1;
+            int groups = n / len;
+            int pieces = Math.max(1, tasks / groups);
+            int piece = (half + pieces - 1) / pieces;
+            forEach(groups * pieces, t -> {
+                int from = (t % pieces) * piece;
+                int to = Math.min(half, from + piece);
+                plan.butterflies(re, im, l, (t / pieces) * l, from, to);
+            });
+        }
+    }
+
+    /** Untere Grenze des Teils t, wenn 0, ..., n-1 in parts Teile zerfaellt */
+    private static int bound(int t, int parts, int n) {
+        return (int) ((long) t * n / parts);
+    }
+
+    /** Ruft body fuer 0, ..., count-1 parallel auf und wartet auf das Ende */
+    private void forEach(int count, IntConsumer body) {
+        forEach(pool, count, body);
+    }
+
+    /**
+     * Ruft body fuer 0, ..., count-1 parallel auf dem Pool pool auf und
+     * wartet auf das Ende
+     */
+    static void forEach(ForkJoinPool pool, int count, IntConsumer body) {
+        if (count > 0)
+            pool.invoke(new Range(0, count, body));
+    }
+
+    /** Teilt den Bereich lo, ..., hi-1 rekursiv auf */
+    private static class Range extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo, hi;
+        private final IntConsumer body;
+
+        Range(int lo, int hi, IntConsumer body) {
+            this.lo = lo;
+            this.hi = hi;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                body.accept(lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Range(lo, mid, body), new Range(mid, hi, body));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package dft;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Schnelle Fourier-Transformation reeller Vektoren. Das Spektrum eines
+ * reellen Vektors der Laenge n ist hermitesch (X_{n-k} = conj(X_k)), es
+ * genuegen also die n/2+1 Eintraege X_0, ..., X_{n/2}.
+ *
+ * Fuer gerade n wird der Vektor als komplexer Vektor z_j = v_{2j} + i*v_{2j+1}
+ * der halben Laenge m = n/2 aufgefasst. Nach einer komplexen FFT der Laenge m
+ * werden die Spektren der geraden und ungeraden Eintraege getrennt und mit
+ * einer letzten Butterfly zusammengesetzt. Das spart etwa die Haelfte der
+ * Rechenzeit und des Speichers. Ungerade n werden mit einer komplexen FFT
+ * der vollen Laenge transformiert.
+ *
+ * Die Normierung entspricht FFT: Die Hintransformation teilt durch n, die
+ * Ruecktransformation nicht.
+ */
+public class RealFFT {
+    /** cos und sin von 2*pi*k/n fuer k <= n/4, nach n sortiert */
+    private static final ConcurrentHashMap<Integer, double[][]> twiddles = new ConcurrentHashMap<Integer, double[][]>();
+
+    /**
+     * Transformiert den reellen Vektor v und gibt die n/2+1 Eintraege
+     * X_0, ..., X_{n/2} zurueck, normiert wie DFT.dft (Division durch n).
+     */
+    public static Complex[] fft(double[] v) {
+        int bins = v.length / 2 + 1;
+        double[] re = new double[bins];
+        double[] im = new double[bins];
+        fft(v, re, im);
+        return FFT.toComplex(re, im);
+    }
+
+    /**
+     * Ruecktransformation der n/2+1 Eintraege c eines hermiteschen Spektrums
+     * zu einem reellen Vektor der Laenge n. Es gilt ifft(fft(v), v.length) = v.
+     */
+    public static double[] ifft(Complex[] c, int n) {
+        int bins = n / 2 + 1;
+        if (c.length < bins)
+            throw new IllegalArgumentException("Fuer die Laenge " + n
+                    + " werden " + bins + " Eintraege benoetigt");
+        double[] re = new double[bins];
+        double[] im = new double[bins];
+        for (int k = 0; k < bins; k++) {
+            re[k] = c[k].getReal();
+            im[k] = c[k].getImaginaer();
+        }
+        double[] v = new double[n];
+        ifft(re, im, v);
+        return v;
+    }
+
+    /**
+     * Transformiert den reellen Vektor v der Laenge n. Die Eintraege
+     * X_0, ..., X_{n/2} stehen danach in re und im, die mindestens n/2+1
+     * lang sein muessen. Normiert wird wie bei FFT.fft (Division durch n).
+     */
+    public static void fft(double[] v, double[] re, double[] im) {
+        int n = v.length;
+        checkLength(n, re, im);
+        if (n % 2 != 0) {
+            complexFft(v, re, im);
+            return;
+        }
+
+        int m = n / 2;
+        FftPlan plan = FftPlan.get(m, false);
+        double[][] z = plan.scratch();
+        double[] zr = z[0], zi = z[1];
+        for (int j = 0; j < m; j++) {
+            zr[j] = v[2 * j];
+            zi[j] = v[2 * j + 1];
+        }
+        plan.execute(zr, zi);
+
+        double[][] w = twiddles(n);
+        re[0] = (zr[0] + zi[0]) / n;
+        im[0] = 0;
+        re[m] = (zr[0] - zi[0]) / n;
+        im[m] = 0;
+        for (int k = 1; k < m; k++) {
+            // E = (Z_k + conj Z_{m-k}) / 2, O = -i (Z_k - conj Z_{m-k}) / 2
+            double ar = zr[k], ai = zi[k];
+            double br = zr[m - k], bi = -zi[m - k];
+            double er = (ar + br) / 2, ei = (ai + bi) / 2;
+            double or = (ai - bi) / 2, oi = -(ar - br) / 2;
+            double wr = cosine(w, k, n), wi = -sine(w, k, n);
+            re[k] = (er + wr * or - wi * oi) / n;
+            im[k] = (ei + wr * oi + wi * or) / n;
+        }
+    }
+
+    /**
+     * Ruecktransformation der Eintraege re + i*im, k = 0, ..., n/2, eines
+     * hermiteschen Spektrums nach v der Laenge n, ohne Normierung (wie
+     * FFT.ifft). Die Imaginaerteile von X_0 und, fuer gerade n, X_{n/2}
+     * werden ignoriert.
+     */
+    public static void ifft(double[] re, double[] im, double[] v) {
+        int n = v.length;
+        checkLength(n, re, im);
+        if (n % 2 != 0) {
+            complexIfft(re, im, v);
+            return;
+        }
+
+        int m = n / 2;
+        FftPlan plan = FftPlan.get(m, true);
+        double[][] z = plan.scratch();
+        double[] zr = z[0], zi = z[1];
+
+        double[][] w = twiddles(n);
+        zr[0] = re[0] + re[m];
+        zi[0] = re[0] - re[m];
+        for (int k = 1; k < m; k++) {
+            // E = X_k + conj X_{m-k}, O = (X_k - conj X_{m-k}) w^-k
+            double ar = re[k], ai = im[k];
+            double br = re[m - k], bi = -im[m - k];
+            double er = ar + br, ei = ai + bi;
+            double dr = ar - br, di = ai - bi;
+            double wr = cosine(w, k, n), wi = sine(w, k, n);
+            double or = dr * wr - di * wi, oi = dr * wi + di * wr;
+            // Z = E + i*O
+            zr[k] = er - oi;
+            zi[k] = ei + or;
+        }
+        plan.execute(zr, zi);
+
+        for (int j = 0; j < m; j++) {
+            v[2 * j] = zr[j];
+            v[2 * j + 1] = zi[j];
+        }
+    }
+
+    /** Ungerades n: komplexe FFT der vollen Laenge */
+    private static void complexFft(double[] v, double[] re, double[] im) {
+        int n = v.length;
+        FftPlan plan = FftPlan.get(n, false);
+        double[][] z = plan.scratch();
+        System.arraycopy(v, 0, z[0], 0, n);
+        Arrays.fill(z[1], 0);
+        plan.execute(z[0], z[1]);
+        for (int k = 0; k <= n / 2; k++) {
+            re[k] = z[0][k] / n;
+            im[k] = z[1][k] / n;
+        }
+        im[0] = 0;
+    }
+
+    /** Ungerades n: Spektrum ergaenzen, komplexe IFFT der vollen Laenge */
+    private static void complexIfft(double[] re, double[] im, double[] v) {
+        int n = v.length;
+        FftPlan plan = FftPlan.get(n, true);
+        double[][] z = plan.scratch();
+        z[0][0] = re[0];
+        z[1][0] = 0;
+        for (int k = 1; k <= n / 2; k++) {
+            z[0][k] = z[0][n - k] = re[k];
+            z[1][k] = im[k];
+            z[1][n - k] = -im[k];
+        }
+        plan.execute(z[0], z[1]);
+        System.arraycopy(z[0], 0, v, 0, n);
+    }
+
+    private static void checkLength(int n, double[] re, double[] im) {
+        if (n == 0)
+            throw new IllegalArgumentException("Der Vektor ist leer");
+        if (re.length < n / 2 + 1 || im.length < n / 2 + 1)
+            throw new IllegalArgumentException("Fuer die Laenge " + n
+                    + " werden " + (n / 2 + 1) + " Eintraege benoetigt");
+    }
+
+    /**
+     * cos(2*pi*k/n) und sin(2*pi*k/n) fuer 0 <= k <= n/4. Die uebrigen k
+     * ergeben sich in cosine() und sine() aus der Symmetrie.
+     */
+    private static double[][] twiddles(int n) {
+        double[][] w = twiddles.get(n);
+        if (w == null) {
+            int q = n / 4;
+            w = new double[2][q + 1];
+            for (int k = 0; k <= q; k++) {
+                w[0][k] = Math.cos(2 * Math.PI * k / n);
+                w[1][k] = Math.sin(2 * Math.PI * k / n);
+            }
+            twiddles.putIfAbsent(n, w);
+        }
+        return w;
+    }
+
+    /** cos(2*pi*k/n) fuer 0 < k < n/2 */
+    private static double cosine(double[][] w, int k, int n) {
+        int q = w[0].length - 1;
+        return (k <= q) ? w[0][k] : -w[0][n / 2 - k];
+    }
+
+    /** sin(2*pi*k/n) fuer 0 < k < n/2 */
+    private static double sine(double[][] w, int k, int n) {
+        int q = w[0].length - 1;
+        return (k <= q) ? w[1][k] : w[1][n / 2 - k];
+    }
+}
@@ -0,0 +1,136 @@
+package dft;
+
+import java.util.Arrays;
+
+/**
+ * Kurzzeit-Fourier-Transformation (STFT) eines fortlaufenden reellen Signals.
+ * Die Abtastwerte werden in beliebig grossen Stuecken mit process() uebergeben
+ * und in einem Ringpuffer der Fensterlaenge n gehalten. Sobald n Werte
+ * vorliegen und danach alle hop Werte wird das letzte Fenster mit der
+ * Fensterfunktion gewichtet, mit RealFFT transformiert und das Spektrum an
+ * den Listener uebergeben. Der Speicherbedarf haengt nur von n ab, nicht von
+ * der Laenge des Signals.
+ */
+public class STFT {
+    /** Empfaenger der Spektren */
+    public interface Listener {
+        /**
+         * Wird fuer jedes Fenster aufgerufen. position ist der Index des
+         * ersten Abtastwerts des Fensters im gesamten Signal, re und im
+         * enthalten die n/2+1 Eintraege des Spektrums, normiert wie FFT.fft.
+         * Die Arrays werden fuer das naechste Fenster wiederverwendet und
+         * muessen kopiert werden, wenn sie laenger gebraucht werden.
+         */
+        public void spectrum(long position, double[] re, double[] im);
+    }
+
+    /** Gewichte der Fensterfunktion */
+    private final double[] window;
+
+    /** Anzahl der Abtastwerte zwischen zwei Fenstern */
+    private final int hop;
+
+    private final Listener listener;
+
+    /** Ringpuffer der letzten n Abtastwerte */
+    private final double[] ring;
+
+    /** Naechste Schreibposition im Ringpuffer */
+    private int pos = 0;
+
+    /** Anzahl der bisher uebergebenen Abtastwerte */
+    private long count = 0;
+
+    /** Arbeitsspeicher fuer das gewichtete Fenster und das Spektrum */
+    private final double[] frame, re, im;
+
+    /**
+     * Erzeugt eine STFT mit der Fensterfunktion window (deren Laenge die
+     * Fensterlaenge n ist) und dem Abstand hop > 0 zwischen zwei Fenstern
+     */
+    public STFT(double[] window, int hop, Listener listener) {
+        if (window.length == 0 || hop < 1)
+            throw new IllegalArgumentException(
+                    "Fensterlaenge und Abstand muessen positiv sein");
+        this.window = window.clone();
+        this.hop = hop;
+        this.listener = listener;
+        int n = window.length;
+        ring = new double[n];
+        frame = new double[n];
+        re = new double[n / 2 + 1];
+        im = new double[n / 2 + 1];
+    }
+
+    /** Uebergibt die Abtastwerte samples */
+    public void process(double[] samples) {
+        process(samples, 0, samples.length);
+    }
+
+    /** Uebergibt die Abtastwerte samples[offset], ..., samples[offset+length-1] */
+    public void process(double[] samples, int offset, int length) {
+        int n = ring.length;
+        for (int i = offset; i < offset + length; i++) {
+            ring[pos] = samples[i];
+            pos = (pos + 1 == n) ? 0 : pos + 1;
+            count++;
+            if (count >= n && (count - n) % hop == 0)
+                emit();
+        }
+    }
+
+    /** Verwirft alle bisherigen Abtastwerte */
+    public void reset() {
+        Arrays.fill(ring, 0);
+        pos = 0;
+        count = 0;
+    }
+
+    /** Gibt die Fensterlaenge zurueck */
+    public int getWindowLength() {
+        return ring.length;
+    }
+
+    /** Gibt den Abstand zwischen zwei Fenstern zurueck */
+    public int getHop() {
+        return hop;
+    }
+
+    /** Transformiert das Fenster, das mit dem aeltesten Wert bei pos beginnt */
+    private void emit() {
+        int n = ring.length;
+        int first = n - pos;
+        for (int i = 0; i < first; i++)
+            frame[i] = ring[pos + i] * window[i];
+        for (int i = first; i < n; i++)
+            frame[i] = ring[i - first] * window[i];
+        RealFFT.fft(frame, re, im);
+        listener.spectrum(count - n, re, im);
+    }
+
+    /** Rechteckfenster der Laenge n */
+    public static double[] rectangular(int n) {
+        double[] w = new double[n];
+        Arrays.fill(w, 1);
+        return w;
+    }
+
+    /**
+     * Periodisches Hann-Fenster der Laenge n: 0.5 - 0.5*cos(2*pi*i/n). Mit
+     * hop = n/2 oder n/4 summieren sich die Fenster zu einer Konstanten.
+     */
+    public static double[] hann(int n) {
+        double[] w = new double[n];
+        for (int i = 0; i < n; i++)
+            w[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / n);
+        return w;
+    }
+
+    /** Periodisches Hamming-Fenster der Laenge n: 0.54 - 0.46*cos(2*pi*i/n) */
+    public static double[] hamming(int n) {
+        double[] w = new double[n];
+        for (int i = 0; i < n; i++)
+            w[i] = 0.54 - 0.46 * Math.cos(2 * Math.PI * i / n);
+        return w;
+    }
+}
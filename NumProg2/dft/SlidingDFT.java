@@ -0,0 +1,127 @@
+package dft;
+
+/**
+ * Gleitende DFT einzelner Frequenzen. Fuer die letzten n Abtastwerte
+ * x_{t-n+1}, ..., x_t eines fortlaufenden Signals werden nur die Eintraege
+ * X_k fuer die gewuenschten k berechnet. Mit jedem neuen Wert werden sie mit
+ * der Rekursion
+ *
+ * X_k(t) = (X_k(t-1) - x_{t-n} + x_t) * exp(2*pi*i*k/n)
+ *
+ * in O(1) pro Eintrag aktualisiert. Lohnt sich, solange nur wenige Eintraege
+ * gebraucht werden, sonst ist STFT mit hop = 1 guenstiger.
+ *
+ * Bei der Rekursion sammeln sich Rundungsfehler an. Deshalb werden die
+ * Eintraege alle RESYNC*n Werte direkt aus dem Ringpuffer neu berechnet.
+ * Das kostet O(n) pro Eintrag und damit im Mittel O(1/RESYNC) pro Wert.
+ */
+public class SlidingDFT {
+    /** Nach so vielen Fensterlaengen werden die Eintraege neu berechnet */
+    final static int RESYNC = 16;
+
+    /** Fensterlaenge */
+    private final int n;
+
+    /** die berechneten Frequenzen */
+    private final int[] bins;
+
+    /** exp(2*pi*i*k/n) fuer die Frequenzen k aus bins */
+    private final double[] rotRe, rotIm;
+
+    /** Summen X_k, nicht normiert */
+    private final double[] sumRe, sumIm;
+
+    /** Ringpuffer der letzten n Abtastwerte, pos zeigt auf den aeltesten */
+    private final double[] ring;
+    private int pos = 0;
+
+    /** Abtastwerte seit der letzten Neuberechnung */
+    private long sinceResync = 0;
+
+    /**
+     * Erzeugt eine gleitende DFT der Fensterlaenge n fuer die Frequenzen bins
+     * mit 0 <= bins[i] < n. Bis n Werte uebergeben wurden, wird mit Nullen
+     * aufgefuellt.
+     */
+    public SlidingDFT(int n, int[] bins) {
+        if (n < 1)
+            throw new IllegalArgumentException("Die Fensterlaenge " + n
+                    + " ist nicht positiv");
+        this.n = n;
+        this.bins = bins.clone();
+        rotRe = new double[bins.length];
+        rotIm = new double[bins.length];
+        for (int b = 0; b < bins.length; b++) {
+            if (bins[b] < 0 || bins[b] >= n)
+                throw new IllegalArgumentException("Die Frequenz " + bins[b]
+                        + " liegt nicht zwischen 0 und " + (n - 1));
+            rotRe[b] = Math.cos(2 * Math.PI * bins[b] / n);
+            rotIm[b] = Math.sin(2 * Math.PI * bins[b] / n);
+        }
+        sumRe = new double[bins.length];
+        sumIm = new double[bins.length];
+        ring = new double[n];
+    }
+
+    /** Nimmt den naechsten Abtastwert x auf */
+    public void push(double x) {
+        double delta = x - ring[pos];
+        ring[pos] = x;
+        pos = (pos + 1 == n) ? 0 : pos + 1;
+
+        for (int b = 0; b < bins.length; b++) {
+            double r = sumRe[b] + delta;
+            double i = sumIm[b];
+            sumRe[b] = r * rotRe[b] - i * rotIm[b];
+            sumIm[b] = r * rotIm[b] + i * rotRe[b];
+        }
+
+        if (++sinceResync >= (long) RESYNC * n)
+            resync();
+    }
+
+    /** Nimmt die Abtastwerte samples der Reihe nach auf */
+    public void push(double[] samples) {
+        for (double x : samples)
+            push(x);
+    }
+
+    /**
+     * Gibt den Realteil des b-ten Eintrags (Frequenz bins[b]) zurueck,
+     * normiert wie FFT.fft (Division durch n)
+     */
+    public double getReal(int b) {
+        return sumRe[b] / n;
+    }
+
+    /** Gibt den Imaginaerteil des b-ten Eintrags zurueck, normiert */
+    public double getImaginaer(int b) {
+        return sumIm[b] / n;
+    }
+
+    /** Gibt den Betrag des b-ten Eintrags zurueck, normiert */
+    public double getMagnitude(int b) {
+        return Math.sqrt(sumRe[b] * sumRe[b] + sumIm[b] * sumIm[b]) / n;
+    }
+
+    /** Berechnet alle Eintraege direkt aus dem Ringpuffer, O(n) pro Eintrag */
+    public void resync() {
+        for (int b = 0; b < bins.length; b++) {
+            int k = bins[b];
+            double r = 0, i = 0;
+            int phase = 0;
+            for (int j = 0; j < n; j++) {
+                double x = ring[(pos + j) % n];
+                double phi = 2 * Math.PI * phase / n;
+                r += x * Math.cos(phi);
+                i -= x * Math.sin(phi);
+                phase += k;
+                if (phase >= n)
+                    phase -= n;
+            }
+            sumRe[b] = r;
+            sumIm[b] = i;
+        }
+        sinceResync = 0;
+    }
+}
@@ -0,0 +1,15 @@
+package dft;
+
+/**
+ * Gewichtung der Frequenzen eines Bildes fuer FFT2D.filter(). Der Eintrag
+ * (fx, fy) des Spektrums wird mit weight(fx, fy, width, height)
+ * multipliziert. Die Frequenzen sind vorzeichenbehaftet und zaehlen die
+ * Schwingungen pro Bildbreite bzw. -hoehe: -width/2 < fx <= width/2 und
+ * -height/2 < fy <= height/2.
+ *
+ * Ein Filter mit reellem, symmetrischem Kern hat eine gerade Gewichtung,
+ * weight(-fx, -fy) = weight(fx, fy). FFT2D verwendet nur diesen geraden Teil.
+ */
+public interface SpectralMask {
+    public double weight(int fx, int fy, int width, int height);
+}
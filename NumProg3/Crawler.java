@@ -50,7 +50,7 @@ public class Crawler {
         // bereite Output vor, falls alle Threads fertig sind und keine weiteren
         // Seite zum Crawlen anstehen
         if ((q.isEmpty() || canceled) && threadCount == 0) {
-            LinkMatrix lm = getLinkMatrix();
+            SparseLinkMatrix lm = getSparseLinkMatrix();
             try {
                 lm.write(outFile);
             } catch (Exception e) {
@@ -116,23 +116,37 @@ public class Crawler {
         return finished;
     }
 
-    private LinkMatrix getLinkMatrix() {
-        // erzeuge Matrix
-        int L[][] = new int[pageCount][pageCount];
+    /**
+     * Gibt die Linkmatrix der gecrawlten Seiten zurueck, duenn besetzt: Es
+     * werden nur die Links gespeichert, nicht die pageCount^2 Eintraege
+     */
+    public synchronized SparseLinkMatrix getSparseLinkMatrix() {
+        // sammle die Links j -> i, jede Seite verlinkt auf sich selbst
+        int e = pageCount;
+        for (Page j : pages.values())
+            e += j.links.size();
+        int[] rows = new int[e], cols = new int[e];
+        e = 0;
         for (Page j : pages.values()) {
-            L[j.nbr][j.nbr] = 1;
-            for (Page i : j.links)
-                L[i.nbr][j.nbr] = 1;
+            rows[e] = j.nbr;
+            cols[e++] = j.nbr;
+            for (Page i : j.links) {
+                rows[e] = i.nbr;
+                cols[e++] = j.nbr;
+            }
         }
 
         // stelle Output zusammen
-        LinkMatrix lm = new LinkMatrix();
-        lm.L = L;
-        lm.urls = new String[pageCount];
+        String[] urls = new String[pageCount];
         for (Page p : pages.values())
-            lm.urls[p.nbr] = p.url;
+            urls[p.nbr] = p.url;
+
+        return new SparseLinkMatrix(pageCount, rows, cols, e, urls);
+    }
 
-        return lm;
+    /** Gibt die Linkmatrix der gecrawlten Seiten dicht besetzt zurueck */
+    public LinkMatrix getLinkMatrix() {
+        return getSparseLinkMatrix().toLinkMatrix();
     }
 
     private class CrawlerThread implements Runnable {
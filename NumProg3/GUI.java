@@ -383,12 +383,13 @@ class Search extends JFrame implements ActionListener {
                 try {
 
                     File file = d.getSelectedFile();
-                    LinkMatrix lm = new LinkMatrix();
+                    // liest dichte und duenn besetzte Linkmatrizen
+                    SparseLinkMatrix lm = new SparseLinkMatrix();
                     lm.read(file.getAbsolutePath());
                     double rho = Double.parseDouble(rhofield.getText());
-                    double[] rank = PageRank.rank(lm.L, rho);
+                    double[] rank = PageRank.rank(lm, rho);
                     Arrays.sort(rank);
-                    String r[] = PageRank.getSortedURLs(lm.urls, lm.L, rho);
+                    String r[] = PageRank.getSortedURLs(lm, rho);
                     textarea.setText("");
                     for (int i = 0; i < r.length && i < 20; i++) {
                         textarea.append((int) (10000 * rank[rank.length - i - 1])
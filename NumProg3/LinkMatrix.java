@@ -19,7 +19,15 @@ public class LinkMatrix {
         BufferedReader file = new BufferedReader(new FileReader(filename));
 
         try {
-            int n = Integer.valueOf(file.readLine());
+            String first = file.readLine();
+            // vom Crawler geschriebene Dateien sind duenn besetzt
+            if (first.startsWith("sparse")) {
+                LinkMatrix lm = readSparse(filename);
+                L = lm.L;
+                urls = lm.urls;
+                return;
+            }
+            int n = Integer.valueOf(first.trim());
 
             L = new int[n][n];
             for (int i = 0; i < n; i++) {
@@ -38,6 +46,13 @@ public class LinkMatrix {
         }
     }
 
+    private static LinkMatrix readSparse(String filename)
+            throws FileNotFoundException, IOException {
+        SparseLinkMatrix s = new SparseLinkMatrix();
+        s.read(filename);
+        return s.toLinkMatrix();
+    }
+
     public void write(String filename) throws FileNotFoundException,
             IOException {
         String temp;
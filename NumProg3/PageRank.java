@@ -4,24 +4,36 @@ import java.util.stream.IntStream;
 
 public class PageRank {
 
+    /**
+     * Voreingestellte Genauigkeit von rankIterative(): Aenderung von p in der
+     * Summennorm
+     */
+    public static final double TOLERANCE = 1E-12;
+
+    /** Voreingestellte Hoechstzahl an Schritten von rankIterative() */
+    public static final int MAX_ITERATIONS = 1000;
+
     /**
      * Diese Methode erstellt die Matrix A~ fuer das PageRank-Verfahren
      * PARAMETER:
      * L: die Linkmatrix: Wenn Verbindung von Website j zu i 1 sonst 0
      * rho: Wahrscheinlichkeit, anstatt einem Link zu folgen,
      * zufaellig irgendeine Seite zu besuchen
+     * Die Spaltensummen von L werden vorab einmal berechnet, insgesamt
+     * O(n^2). Ohne die dichte Matrix geht es mit ProbabilityOperator.
      */
     public static double[][] buildProbabilityMatrix(int[][] L, double rho) {
         double[][] probabilityMatrix = new double[L.length][L.length];
-        double links = 0;
+        double[] links = new double[L.length];
+        for (int k = 0; k < L.length; k++) {
+            for (int j = 0; j < L.length; j++) {
+                links[j] += L[k][j];
+            }
+        }
         for (int i = 0; i < L.length; i++) {
             for (int j = 0; j < L.length; j++) {
                 if (L[i][j] == 1) {
-                    links = 0;
-                    for (int k = 0; k < L.length; k++) {
-                        links += L[k][j];
-                    }
-                    probabilityMatrix[i][j] = (1 - rho) * (1 / links) + (rho / L.length);
+                    probabilityMatrix[i][j] = (1 - rho) * (1 / links[j]) + (rho / L.length);
                 } else {
                     probabilityMatrix[i][j] = (rho / L.length);
                 }
@@ -30,6 +42,16 @@ public class PageRank {
         return probabilityMatrix;
     }
 
+    /**
+     * Wie buildProbabilityMatrix(int[][], double), aber fuer eine duenn
+     * besetzte Linkmatrix: Die Spaltensummen stehen in L.outDegree, nur die
+     * Einsen werden einzeln gesetzt. O(n^2) fuer das Ergebnis, sonst O(n + e)
+     */
+    public static double[][] buildProbabilityMatrix(SparseLinkMatrix L,
+            double rho) {
+        return new ProbabilityOperator(L, rho).toMatrix();
+    }
+
     /**
      * Diese Methode berechnet die PageRanks der einzelnen Seiten,
      * also das Gleichgewicht der Aufenthaltswahrscheinlichkeiten.
@@ -40,9 +62,109 @@ public class PageRank {
      * rho: Wahrscheinlichkeit, zufaellig irgendeine Seite zu besuchen
      * ,anstatt einem Link zu folgen.
      *
+     * Eine Seite ohne Links (Spalte von L nur mit Nullen) behandelt A~ nicht
+     * besonders: Ihre Spalte ist nicht stochastisch, und das Ergebnis besteht
+     * dann aus NaN. rank(SparseLinkMatrix, double) verteilt die
+     * Wahrscheinlichkeit solcher Seiten dagegen gleichmaessig auf alle Seiten
+     * und liefert auch dann eine Rangliste. Der Crawler erzeugt keine solchen
+     * Seiten, da jede Seite auf sich selbst verlinkt.
      */
     public static double[] rank(int[][] L, double rho) {
-        double[][] A_tilde = buildProbabilityMatrix(L, rho);
+        return solve(buildProbabilityMatrix(L, rho));
+    }
+
+    /**
+     * Wie rank(int[][], double) fuer eine duenn besetzte Linkmatrix, aber
+     * iterativ mit rankIterative() und den Voreinstellungen TOLERANCE und
+     * MAX_ITERATIONS. Die dichte Matrix A~ wird nicht angelegt.
+     */
+    public static double[] rank(SparseLinkMatrix L, double rho) {
+        return rankIterative(L, rho, TOLERANCE, MAX_ITERATIONS, null);
+    }
+
+    /**
+     * Diese Methode berechnet die PageRanks mit der Potenzmethode
+     * p <- A~ p mit ProbabilityOperator, ohne A~ anzulegen. Pro Schritt wird
+     * p_i <- (1-rho) * (sum_{j -> i} p_j / outDegree_j + d/n) + rho/n
+     * gerechnet, wobei d die Summe der p_j der Seiten ohne Links ist: Von
+     * dort geht es mit gleicher Wahrscheinlichkeit zu jeder Seite. Ein
+     * Schritt kostet O(n + Anzahl der Links).
+     *
+     * Hat jede Seite mindestens einen Link (beim Crawler verlinkt jede Seite
+     * auf sich selbst), ist das dieselbe Matrix wie bei rank(int[][], double),
+     * und das Ergebnis stimmt bis auf die Genauigkeit ueberein. Der Fehler
+     * schrumpft pro Schritt um den Faktor 1-rho, der Abstand zum Ergebnis ist
+     * hoechstens tol * (1-rho)/rho.
+     * PARAMETER:
+     * L: die Linkmatrix
+     * rho: Wahrscheinlichkeit, zufaellig irgendeine Seite zu besuchen
+     * tol: es wird abgebrochen, wenn sich p in der Summennorm um hoechstens
+     * tol aendert
+     * maxIterations: Hoechstzahl an Schritten
+     * start: Startvektor, z.B. die PageRanks eines frueheren Crawls, oder
+     * null fuer die Gleichverteilung. Es zaehlen die Betraege, mindestens ein
+     * Eintrag muss ungleich 0 sein.
+     */
+    public static double[] rankIterative(SparseLinkMatrix L, double rho,
+            double tol, int maxIterations, double[] start) {
+        int n = L.n;
+        double[] p = new double[n];
+        if (start == null) {
+            Arrays.fill(p, 1.0 / n);
+        } else {
+            if (start.length != n)
+                throw new IllegalArgumentException("Der Startvektor hat "
+                        + start.length + " statt " + n + " Eintraege");
+            for (int i = 0; i < n; i++)
+                p[i] = Math.abs(start[i]);
+            // auch NaN, sonst waere nach normalize() alles NaN
+            if (!(Arrays.stream(p).sum() > 0))
+                throw new IllegalArgumentException(
+                        "Der Startvektor hat die Summe 0");
+            normalize(p);
+        }
+
+        ProbabilityOperator A = new ProbabilityOperator(L, rho);
+        double[] next = new double[n];
+        for (int step = 0; step < maxIterations; step++) {
+            A.apply(p, next);
+            // A~ laesst von Seiten ohne Links nur rho/n uebrig, den Rest
+            // gleichmaessig verteilen
+            double dangling = (1 - rho) * A.danglingSum(p) / n;
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                next[i] += dangling;
+                sum += next[i];
+            }
+
+            // apply() ist linear und uebernimmt Rundungsfehler in der Summe
+            // von p, ohne Normieren bleibt change dann ueber tol haengen
+            double change = 0;
+            for (int i = 0; i < n; i++) {
+                next[i] /= sum;
+                change += Math.abs(next[i] - p[i]);
+            }
+            double[] t = p;
+            p = next;
+            next = t;
+            if (change <= tol)
+                break;
+        }
+        normalize(p);
+        return p;
+    }
+
+    /** Teilt p durch die Summe seiner Eintraege */
+    private static void normalize(double[] p) {
+        double sum = Arrays.stream(p).sum();
+        for (int i = 0; i < p.length; i++)
+            p[i] /= sum;
+    }
+
+    /**
+     * Loest (A~ - I) p = 0 mit Gauss.solveSing und normiert p auf Summe 1
+     */
+    private static double[] solve(double[][] A_tilde) {
         IntStream.range(0, A_tilde.length).forEach(i->A_tilde[i][i]-=1);
         double[] p = Gauss.solveSing(A_tilde);
         double lambda = 1/Arrays.stream(p).sum();
@@ -58,11 +180,27 @@ public class PageRank {
      * L: die Linkmatrix (s. Aufgabenblatt)
      * rho: Wahrscheinlichkeit, anstatt einem Link zu folgen,
      * zufaellig irgendeine Seite zu besuchen
+     * Fuer Seiten ohne Links gilt dasselbe wie bei rank(int[][], double):
+     * Die Rangliste ist dann nicht sinnvoll, getSortedURLs(SparseLinkMatrix,
+     * double) kommt damit zurecht.
      */
     public static String[] getSortedURLs(String[] urls, int[][] L, double rho) {
-        int n = L.length;
+        return sortURLs(urls, rank(L, rho));
+    }
+
+    /**
+     * Wie getSortedURLs(String[], int[][], double) fuer eine duenn besetzte
+     * Linkmatrix, die URLs stehen in L.urls
+     */
+    public static String[] getSortedURLs(SparseLinkMatrix L, double rho) {
+        return sortURLs(L.urls, rank(L, rho));
+    }
 
-        double[] p = rank(L, rho);
+    /**
+     * Sortiert die URLs urls absteigend nach den PageRanks p
+     */
+    private static String[] sortURLs(String[] urls, double[] p) {
+        int n = urls.length;
 
         RankPair[] sortedPairs = new RankPair[n];
         for (int i = 0; i < n; i++) {
@@ -0,0 +1,91 @@
+import java.util.Arrays;
+
+/**
+ * Die Matrix A~ des PageRank-Verfahrens, ohne die n x n Eintraege anzulegen:
+ * A~[i][j] = (1-rho)/outDegree_j + rho/n, wenn Seite j auf Seite i verlinkt,
+ * sonst rho/n. Gespeichert werden nur die Linkstruktur im CSR-Format und
+ * die Kehrwerte der Spaltensummen, aufgebaut in O(n + Anzahl der Links).
+ * apply() berechnet A~ p ebenfalls in O(n + Anzahl der Links).
+ *
+ * Seiten ohne Links haben in A~ die Spalte rho/n, wie bei
+ * PageRank.buildProbabilityMatrix(). danglingSum() liefert die Summe von p
+ * ueber diese Seiten, z.B. fuer eine Korrektur wie in
+ * PageRank.rankIterative().
+ *
+ * apply() verwendet einen Zwischenspeicher des Operators und darf nicht von
+ * mehreren Threads gleichzeitig aufgerufen werden.
+ */
+public class ProbabilityOperator {
+    private final int n;
+    private final double rho;
+
+    /** Linkstruktur wie in SparseLinkMatrix */
+    private final int[] rowStart, columns;
+
+    /** 1/outDegree_j, 0 fuer Seiten ohne Links */
+    private final double[] weight;
+
+    /** p_j/outDegree_j in apply() */
+    private final double[] scaled;
+
+    /** Operator zur duenn besetzten Linkmatrix L, O(n) */
+    public ProbabilityOperator(SparseLinkMatrix L, double rho) {
+        n = L.n;
+        this.rho = rho;
+        rowStart = L.rowStart;
+        columns = L.columns;
+        weight = new double[n];
+        for (int j = 0; j < n; j++)
+            if (L.outDegree[j] != 0)
+                weight[j] = 1.0 / L.outDegree[j];
+        scaled = new double[n];
+    }
+
+    /** Operator zur dichten Linkmatrix L, O(n^2) fuer das Durchsuchen von L */
+    public ProbabilityOperator(int[][] L, double rho) {
+        this(new SparseLinkMatrix(L, null), rho);
+    }
+
+    /** Anzahl der Seiten */
+    public int size() {
+        return n;
+    }
+
+    /** Berechnet out = A~ p */
+    public void apply(double[] p, double[] out) {
+        double sum = 0;
+        for (int j = 0; j < n; j++) {
+            scaled[j] = p[j] * weight[j];
+            sum += p[j];
+        }
+        double base = rho / n * sum;
+        for (int i = 0; i < n; i++) {
+            double s = 0;
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++)
+                s += scaled[columns[k]];
+            out[i] = (1 - rho) * s + base;
+        }
+    }
+
+    /** Summe der p_j ueber die Seiten j ohne Links */
+    public double danglingSum(double[] p) {
+        double d = 0;
+        for (int j = 0; j < n; j++)
+            if (weight[j] == 0)
+                d += p[j];
+        return d;
+    }
+
+    /** Gibt A~ als dichte Matrix zurueck, O(n^2) */
+    public double[][] toMatrix() {
+        double[][] A = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(A[i], rho / n);
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                int j = columns[k];
+                A[i][j] = (1 - rho) * weight[j] + (rho / n);
+            }
+        }
+        return A;
+    }
+}
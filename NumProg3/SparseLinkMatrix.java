@@ -0,0 +1,209 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Duenn besetzte Linkmatrix im CSR-Format (compressed sparse row). Wie bei
+ * LinkMatrix ist L[i][j] = 1, wenn Seite j auf Seite i verlinkt. Gespeichert
+ * werden nur die Einsen: Zeile i belegt columns[rowStart[i]] bis
+ * columns[rowStart[i+1]-1], das sind aufsteigend die Seiten j, die auf i
+ * verlinken. outDegree[j] ist die Spaltensumme, also die Anzahl der Links
+ * der Seite j.
+ *
+ * Der Speicher waechst mit n + Anzahl der Links statt mit n^2. Eine Matrix
+ * mit 100000 Seiten und 10 Links pro Seite braucht etwa 5 MB statt 40 GB.
+ *
+ * Dateiformat (read() liest auch das dichte Format von LinkMatrix):
+ * sparse n e
+ * n Zeilen mit den Spalten j der Zeile i, durch Leerzeichen getrennt
+ * n Zeilen mit den URLs
+ */
+public class SparseLinkMatrix {
+    public int n;
+    public int[] rowStart;
+    public int[] columns;
+    public int[] outDegree;
+    public String[] urls;
+
+    private static final String delim = " ";
+    private static final String header = "sparse";
+
+    /** leere Matrix, z.B. fuer read() */
+    public SparseLinkMatrix() {
+        this(0, new int[0], new int[0], 0, new String[0]);
+    }
+
+    /** Wandelt die dichte Linkmatrix L mit den URLs urls um, O(n^2) */
+    public SparseLinkMatrix(int[][] L, String[] urls) {
+        int e = 0;
+        for (int i = 0; i < L.length; i++)
+            for (int j = 0; j < L.length; j++)
+                if (L[i][j] != 0)
+                    e++;
+        int[] rows = new int[e], cols = new int[e];
+        e = 0;
+        for (int i = 0; i < L.length; i++)
+            for (int j = 0; j < L.length; j++)
+                if (L[i][j] != 0) {
+                    rows[e] = i;
+                    cols[e] = j;
+                    e++;
+                }
+        set(L.length, rows, cols, e, urls);
+    }
+
+    /**
+     * Matrix mit n Seiten und den Links cols[k] -> rows[k], 0 <= k < e.
+     * Doppelte Links zaehlen einmal. O(n + e log e)
+     */
+    public SparseLinkMatrix(int n, int[] rows, int[] cols, int e,
+            String[] urls) {
+        set(n, rows, cols, e, urls);
+    }
+
+    /** Wandelt lm um */
+    public static SparseLinkMatrix fromLinkMatrix(LinkMatrix lm) {
+        return new SparseLinkMatrix(lm.L, lm.urls);
+    }
+
+    /** Gibt die dichte Linkmatrix zurueck, O(n^2) Speicher */
+    public LinkMatrix toLinkMatrix() {
+        LinkMatrix lm = new LinkMatrix();
+        lm.L = new int[n][n];
+        for (int i = 0; i < n; i++)
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++)
+                lm.L[i][columns[k]] = 1;
+        lm.urls = urls;
+        return lm;
+    }
+
+    /** Gibt L[i][j] zurueck, binaere Suche in Zeile i */
+    public int get(int i, int j) {
+        int k = Arrays.binarySearch(columns, rowStart[i], rowStart[i + 1], j);
+        return (k >= 0) ? 1 : 0;
+    }
+
+    /** Anzahl der Einsen */
+    public int getLinkCount() {
+        return rowStart[n];
+    }
+
+    /**
+     * Liest eine Matrix im obigen Format oder im dichten Format von
+     * LinkMatrix. Dichte Dateien werden zeilenweise umgewandelt, ohne die
+     * n x n Matrix anzulegen.
+     */
+    public void read(String filename) throws FileNotFoundException, IOException {
+        BufferedReader file = new BufferedReader(new FileReader(filename));
+
+        try {
+            String[] first = file.readLine().trim().split(delim);
+            boolean sparse = first[0].equals(header);
+            int size = Integer.valueOf(first[sparse ? 1 : 0]);
+
+            int[] rows = new int[16], cols = new int[16];
+            int e = 0;
+            for (int i = 0; i < size; i++) {
+                String line = file.readLine().trim();
+                if (line.isEmpty())
+                    continue;
+                String[] curRow = line.split(delim);
+                for (int k = 0; k < curRow.length; k++) {
+                    int j;
+                    if (sparse)
+                        j = Integer.valueOf(curRow[k]);
+                    else if (Integer.valueOf(curRow[k]) != 0)
+                        j = k;
+                    else
+                        continue;
+                    if (e == rows.length) {
+                        rows = Arrays.copyOf(rows, 2 * e);
+                        cols = Arrays.copyOf(cols, 2 * e);
+                    }
+                    rows[e] = i;
+                    cols[e] = j;
+                    e++;
+                }
+            }
+
+            String[] u = new String[size];
+            for (int i = 0; i < size; i++)
+                u[i] = file.readLine();
+            set(size, rows, cols, e, u);
+        } catch (IOException e) {
+            throw e;
+        } finally {
+            file.close();
+        }
+    }
+
+    /** Schreibt die Matrix im obigen Format */
+    public void write(String filename) throws FileNotFoundException,
+            IOException {
+        BufferedWriter file = new BufferedWriter(new FileWriter(filename));
+
+        try {
+            file.write(header + delim + n + delim + getLinkCount() + "\r\n");
+
+            for (int i = 0; i < n; i++) {
+                StringBuilder temp = new StringBuilder();
+                for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                    if (k > rowStart[i])
+                        temp.append(delim);
+                    temp.append(columns[k]);
+                }
+                file.write(temp + "\r\n");
+            }
+
+            for (int i = 0; i < urls.length; i++)
+                file.write(urls[i] + "\r\n");
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Baut die CSR-Struktur aus den Links cols[k] -> rows[k] auf: Zeilen
+     * zaehlen, einsortieren, jede Zeile sortieren und doppelte entfernen
+     */
+    private void set(int n, int[] rows, int[] cols, int e, String[] urls) {
+        int[] start = new int[n + 1];
+        for (int k = 0; k < e; k++) {
+            if (rows[k] < 0 || rows[k] >= n || cols[k] < 0 || cols[k] >= n)
+                throw new IllegalArgumentException("Link " + cols[k] + " -> "
+                        + rows[k] + " ausserhalb von 0 bis " + (n - 1));
+            start[rows[k] + 1]++;
+        }
+        for (int i = 0; i < n; i++)
+            start[i + 1] += start[i];
+        int[] next = Arrays.copyOf(start, n);
+        int[] c = new int[e];
+        for (int k = 0; k < e; k++)
+            c[next[rows[k]]++] = cols[k];
+
+        // sortieren und doppelte Eintraege zusammenschieben
+        int[] degree = new int[n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            int from = start[i];
+            Arrays.sort(c, from, start[i + 1]);
+            start[i] = m;
+            for (int k = from; k < start[i + 1]; k++)
+                if (k == from || c[k] != c[k - 1]) {
+                    c[m++] = c[k];
+                    degree[c[k]]++;
+                }
+        }
+        start[n] = m;
+
+        this.n = n;
+        rowStart = start;
+        columns = Arrays.copyOf(c, m);
+        outDegree = degree;
+        this.urls = urls;
+    }
+}
@@ -1,3 +1,6 @@
+import java.io.File;
+import java.util.Arrays;
+
 public class Test {
 
     /*************************************************************/
@@ -20,6 +23,7 @@ public class Test {
 
         boolean test_gauss = true;
         boolean test_pagerank = true;
+        boolean test_sparse = true;
         boolean test_crawler = true;
 
         double b[] = { 1, 1 };
@@ -124,10 +128,180 @@ public class Test {
                 System.out.println("            richtiges Ergebnis:");
                 Util.printStringArray(r0);
             }
+
+            System.out
+                    .println("  primitiver und unvollstaendiger Test der Methode rankIterative");
+            // jede Seite verlinkt auf sich selbst, 1 bis 5 Links pro Seite
+            int L5[][] = { { 1, 1, 0, 0, 0 }, { 1, 1, 1, 0, 0 },
+                    { 1, 0, 1, 0, 0 }, { 1, 0, 1, 1, 1 }, { 1, 0, 0, 0, 1 } };
+            SparseLinkMatrix slm = new SparseLinkMatrix(L5, new String[5]);
+            x = PageRank.rankIterative(slm, 0.15, 1E-15, 1000, null);
+            double p0[] = PageRank.rank(L5, 0.15);
+            if (Util.vectorCompare(x, p0)) {
+                System.out.println("    Richtiges Ergebnis");
+            } else {
+                System.out.println("    FEHLER: falsches Ergebnis:");
+                Util.printVector(x);
+                System.out.println("            richtiges Ergebnis:");
+                Util.printVector(p0);
+            }
+
+            System.out
+                    .println("  primitiver und unvollstaendiger Test von rankIterative mit Startvektor 0");
+            try {
+                PageRank.rankIterative(slm, 0.15, 1E-15, 1000, new double[slm.n]);
+                System.out.println("    FEHLER: keine IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                System.out.println("    Richtiges Ergebnis");
+            }
+
+            System.out
+                    .println("  primitiver und unvollstaendiger Test von ProbabilityOperator.toMatrix");
+            double A5[][] = PageRank.buildProbabilityMatrix(L5, 0.15);
+            ProbabilityOperator op = new ProbabilityOperator(slm, 0.15);
+            double A5s[][] = PageRank.buildProbabilityMatrix(slm, 0.15);
+            if (Util.matrixCompare(op.toMatrix(), A5)
+                    && Util.matrixCompare(A5s, A5)
+                    && Util.matrixCompare(
+                            new ProbabilityOperator(L5, 0.15).toMatrix(), A5)) {
+                System.out.println("    Richtiges Ergebnis");
+            } else {
+                System.out.println("    FEHLER: falsches Ergebnis:");
+                Util.printMatrix(op.toMatrix());
+                System.out.println("            richtiges Ergebnis:");
+                Util.printMatrix(A5);
+            }
+
+            System.out
+                    .println("  primitiver und unvollstaendiger Test von ProbabilityOperator.apply");
+            double q[] = { 0.1, 0.2, 0.3, 0.15, 0.25 };
+            double Aq[] = new double[5];
+            for (int i = 0; i < 5; i++)
+                for (int j = 0; j < 5; j++)
+                    Aq[i] += A5[i][j] * q[j];
+            x = new double[5];
+            op.apply(q, x);
+            if (Util.vectorCompare(x, Aq)) {
+                System.out.println("    Richtiges Ergebnis");
+            } else {
+                System.out.println("    FEHLER: falsches Ergebnis:");
+                Util.printVector(x);
+                System.out.println("            richtiges Ergebnis:");
+                Util.printVector(Aq);
+            }
+
+            System.out
+                    .println("  primitiver und unvollstaendiger Test von rank mit einer Seite ohne Links");
+            // Seite 2 verlinkt nirgendwohin, rank(int[][], double) liefert NaN
+            int L2[][] = { { 1, 0, 0 }, { 1, 0, 0 }, { 0, 1, 0 } };
+            x = PageRank.rankIterative(new SparseLinkMatrix(L2, new String[3]),
+                    0.15, 1E-15, 1000, null);
+            double p2[] = { 40.0 / 137, 40.0 / 137, 57.0 / 137 };
+            if (Util.vectorCompare(x, p2)) {
+                System.out.println("    Richtiges Ergebnis");
+            } else {
+                System.out.println("    FEHLER: falsches Ergebnis:");
+                Util.printVector(x);
+                System.out.println("            richtiges Ergebnis:");
+                Util.printVector(p2);
+            }
+        }
+
+        /******************************/
+        /* Test der Klasse SparseLinkMatrix */
+        /******************************/
+        if (test_sparse) {
+            System.out.println("-----------------------------------------");
+            System.out
+                    .println("primitiver und unvollstaendiger Test der Klasse SparseLinkMatrix");
+
+            // Links j -> i als (i, j), 1 -> 0 doppelt, niemand verlinkt auf 3
+            int rows[] = { 0, 0, 1, 2, 0, 2, 1 };
+            int cols[] = { 1, 1, 0, 0, 2, 1, 3 };
+            String urls[] = { "http://a", "http://b", "http://c", "http://d" };
+            SparseLinkMatrix s = new SparseLinkMatrix(4, rows, cols, 7, urls);
+
+            System.out
+                    .println("  primitiver und unvollstaendiger Test von doppelten Links");
+            int degree0[] = { 2, 2, 1, 1 };
+            if (Arrays.equals(s.outDegree, degree0) && s.getLinkCount() == 6) {
+                System.out.println("    Richtiges Ergebnis");
+            } else {
+                System.out.println("    FEHLER: falsches Ergebnis:");
+                System.out.println("    " + Arrays.toString(s.outDegree) + ", "
+                        + s.getLinkCount() + " Links");
+                System.out.println("            richtiges Ergebnis:");
+                System.out.println("    " + Arrays.toString(degree0) + ", 6 Links");
+            }
+
+            File sparseFile = File.createTempFile("sparse", ".txt");
+            File denseFile = File.createTempFile("dense", ".txt");
+            try {
+                s.write(sparseFile.getPath());
+
+                System.out
+                        .println("  primitiver und unvollstaendiger Test von write und read");
+                SparseLinkMatrix s2 = new SparseLinkMatrix();
+                s2.read(sparseFile.getPath());
+                if (sameMatrix(s, s2)) {
+                    System.out.println("    Richtiges Ergebnis");
+                } else {
+                    System.out.println("    FEHLER: falsches Ergebnis:");
+                    printMatrix(s2);
+                    System.out.println("            richtiges Ergebnis:");
+                    printMatrix(s);
+                }
+
+                System.out
+                        .println("  primitiver und unvollstaendiger Test von LinkMatrix.read mit duennem Format");
+                LinkMatrix lm2 = new LinkMatrix();
+                lm2.read(sparseFile.getPath());
+                LinkMatrix lm0 = s.toLinkMatrix();
+                if (Arrays.deepEquals(lm2.L, lm0.L)
+                        && Arrays.equals(lm2.urls, lm0.urls)) {
+                    System.out.println("    Richtiges Ergebnis");
+                } else {
+                    System.out.println("    FEHLER: falsches Ergebnis:");
+                    System.out.println("    " + Arrays.deepToString(lm2.L));
+                    System.out.println("            richtiges Ergebnis:");
+                    System.out.println("    " + Arrays.deepToString(lm0.L));
+                }
+
+                System.out
+                        .println("  primitiver und unvollstaendiger Test von read mit dichtem Format");
+                lm0.write(denseFile.getPath());
+                SparseLinkMatrix s3 = new SparseLinkMatrix();
+                s3.read(denseFile.getPath());
+                if (sameMatrix(s, s3)) {
+                    System.out.println("    Richtiges Ergebnis");
+                } else {
+                    System.out.println("    FEHLER: falsches Ergebnis:");
+                    printMatrix(s3);
+                    System.out.println("            richtiges Ergebnis:");
+                    printMatrix(s);
+                }
+            } finally {
+                sparseFile.delete();
+                denseFile.delete();
+            }
         }
 
         if (test_crawler) {
             (new GUI()).setVisible(true);
         }
     }
+
+    /** Vergleicht zwei duenn besetzte Linkmatrizen samt URLs */
+    private static boolean sameMatrix(SparseLinkMatrix s, SparseLinkMatrix t) {
+        return s.n == t.n && Arrays.equals(s.rowStart, t.rowStart)
+                && Arrays.equals(s.columns, t.columns)
+                && Arrays.equals(s.outDegree, t.outDegree)
+                && Arrays.equals(s.urls, t.urls);
+    }
+
+    private static void printMatrix(SparseLinkMatrix s) {
+        System.out.println("    rowStart " + Arrays.toString(s.rowStart)
+                + ", columns " + Arrays.toString(s.columns) + ", outDegree "
+                + Arrays.toString(s.outDegree));
+    }
 }